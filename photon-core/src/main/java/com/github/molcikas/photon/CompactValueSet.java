@@ -0,0 +1,154 @@
+package com.github.molcikas.photon;
+
+import com.github.molcikas.photon.blueprints.table.TableValue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A set of raw table values stored in a single open-addressing array. Values are compared the same way as
+ * TableValue, so byte arrays with the same contents are equal. Unlike a HashSet of TableValues, there is no wrapper
+ * or entry object for each value.
+ */
+final class CompactValueSet
+{
+    private static final Object NULL_VALUE = new Object();
+    private static final int MIN_CAPACITY = 4;
+
+    private Object[] slots;
+    private int size;
+
+    CompactValueSet(int expectedSize)
+    {
+        int capacity = MIN_CAPACITY;
+        while(capacity < expectedSize * 2)
+        {
+            capacity <<= 1;
+        }
+        this.slots = new Object[capacity];
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    boolean add(Object value)
+    {
+        Object key = value != null ? value : NULL_VALUE;
+        int mask = slots.length - 1;
+        int index = hash(key) & mask;
+        while(slots[index] != null)
+        {
+            if(isEqual(slots[index], key))
+            {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        slots[index] = key;
+        size++;
+        if(size * 2 > slots.length)
+        {
+            resize(slots.length << 1);
+        }
+        return true;
+    }
+
+    boolean remove(Object value)
+    {
+        Object key = value != null ? value : NULL_VALUE;
+        int mask = slots.length - 1;
+        int index = hash(key) & mask;
+        while(slots[index] != null)
+        {
+            if(isEqual(slots[index], key))
+            {
+                slots[index] = null;
+                size--;
+                shiftBackFrom(index);
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    List<Object> toList()
+    {
+        List<Object> values = new ArrayList<>(size);
+        for(Object slot : slots)
+        {
+            if(slot != null)
+            {
+                values.add(slot != NULL_VALUE ? slot : null);
+            }
+        }
+        return values;
+    }
+
+    Set<TableValue> toTableValues()
+    {
+        Set<TableValue> values = new HashSet<>(size * 2);
+        for(Object slot : slots)
+        {
+            if(slot != null)
+            {
+                values.add(new TableValue(slot != NULL_VALUE ? slot : null));
+            }
+        }
+        return values;
+    }
+
+    private void shiftBackFrom(int emptyIndex)
+    {
+        // Move later values in the same run into the empty slot if it is at or after their home slot, so that
+        // lookups never stop early at the hole.
+        int mask = slots.length - 1;
+        int index = (emptyIndex + 1) & mask;
+        while(slots[index] != null)
+        {
+            int homeIndex = hash(slots[index]) & mask;
+            if(((index - homeIndex) & mask) >= ((index - emptyIndex) & mask))
+            {
+                slots[emptyIndex] = slots[index];
+                slots[index] = null;
+                emptyIndex = index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void resize(int capacity)
+    {
+        Object[] oldSlots = slots;
+        slots = new Object[capacity];
+        size = 0;
+        for(Object slot : oldSlots)
+        {
+            if(slot != null)
+            {
+                add(slot != NULL_VALUE ? slot : null);
+            }
+        }
+    }
+
+    private static int hash(Object key)
+    {
+        int hash = TableValue.hashOf(key);
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean isEqual(Object slot, Object key)
+    {
+        return slot == key || TableValue.isEqual(slot, key);
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.molcikas.photon;
+
+import com.github.molcikas.photon.blueprints.entity.EntityBlueprint;
+import com.github.molcikas.photon.blueprints.table.TableBlueprint;
+import com.github.molcikas.photon.query.PhotonQueryResultRow;
+import com.github.molcikas.photon.query.PopulatedEntity;
+
+/**
+ * The row a tracked entity was fetched with. The snapshot of its column values is only taken if the entity is saved,
+ * by hydrating a new instance from the row, so it matches the entity as it was fetched.
+ */
+final class LazySnapshot
+{
+    private final EntityBlueprint entityBlueprint;
+    private final PhotonQueryResultRow photonQueryResultRow;
+    private final boolean columnsFullyQualified;
+    private final Object parentPrimaryKeyValue;
+    private PopulatedEntity<?> fetchedPopulatedEntity;
+
+    LazySnapshot(PopulatedEntity<?> populatedEntity)
+    {
+        this.entityBlueprint = populatedEntity.getEntityBlueprint();
+        this.photonQueryResultRow = populatedEntity.getPhotonQueryResultRow();
+        this.columnsFullyQualified = populatedEntity.isColumnsFullyQualified();
+        this.parentPrimaryKeyValue = populatedEntity.getParentPopulatedEntity() != null ?
+            populatedEntity.getParentPopulatedEntity().getPrimaryKeyValue() :
+            null;
+    }
+
+    Object[] take(TableBlueprint tableBlueprint)
+    {
+        if(fetchedPopulatedEntity == null)
+        {
+            // Entities with joined tables have a snapshot for each table, and they are all taken from one instance.
+            fetchedPopulatedEntity = new PopulatedEntity<>(entityBlueprint, photonQueryResultRow, columnsFullyQualified);
+        }
+        return fetchedPopulatedEntity.getSnapshot(tableBlueprint, parentPrimaryKeyValue);
+    }
+}
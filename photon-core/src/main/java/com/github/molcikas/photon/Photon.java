@@ -3,6 +3,7 @@ package com.github.molcikas.photon;
 import com.github.molcikas.photon.blueprints.AggregateBlueprint;
 import com.github.molcikas.photon.blueprints.entity.EntityBlueprint;
 import com.github.molcikas.photon.blueprints.entity.EntityBlueprintBuilder;
+import com.github.molcikas.photon.blueprints.entity.EntityBlueprintCache;
 import com.github.molcikas.photon.converters.Convert;
 import com.github.molcikas.photon.converters.Converter;
 import com.github.molcikas.photon.datasource.GenericDataSource;
@@ -25,6 +26,7 @@ public class Photon
     private final Map<String, AggregateBlueprint> registeredViewModelAggregates;
 
     private final PhotonOptions photonOptions;
+    private final EntityBlueprintCache entityBlueprintCache;
 
     public DataSource getDataSource()
     {
@@ -36,6 +38,16 @@ public class Photon
         return photonOptions;
     }
 
+    /**
+     * Returns the cache of entity blueprints used for mapping the results of ad-hoc queries.
+     *
+     * @return - the entity blueprint cache
+     */
+    public EntityBlueprintCache getEntityBlueprintCache()
+    {
+        return entityBlueprintCache;
+    }
+
     public static void registerConverter(Class destinationClass, Converter converter)
     {
         Convert.registerConverter(destinationClass, converter);
@@ -90,6 +102,7 @@ public class Photon
         this.registeredAggregates = new HashMap<>();
         this.registeredViewModelAggregates = new HashMap<>();
         this.photonOptions = photonOptions != null ? photonOptions : PhotonOptions.defaultOptions();
+        this.entityBlueprintCache = new EntityBlueprintCache(this.photonOptions.getBlueprintCacheSize());
     }
 
     /**
@@ -1,42 +1,56 @@
 package com.github.molcikas.photon;
 
 import com.github.molcikas.photon.blueprints.entity.EntityBlueprint;
-import com.github.molcikas.photon.blueprints.entity.EntityBlueprintAndKey;
 import com.github.molcikas.photon.blueprints.entity.FieldBlueprint;
 import com.github.molcikas.photon.blueprints.entity.FieldBlueprintAndKey;
 import com.github.molcikas.photon.blueprints.table.TableBlueprint;
 import com.github.molcikas.photon.blueprints.table.TableBlueprintAndKey;
 import com.github.molcikas.photon.blueprints.table.TableValue;
 import com.github.molcikas.photon.exceptions.PhotonException;
-import com.github.molcikas.photon.query.ParameterValue;
 import com.github.molcikas.photon.query.PopulatedEntity;
 import com.github.molcikas.photon.query.PopulatedEntityMap;
-import org.apache.commons.collections4.SetValuedMap;
-import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class PhotonEntityState
 {
-    private final Map<TableBlueprintAndKey, Map<String, ParameterValue>> trackedValues;
-    private final SetValuedMap<FieldBlueprintAndKey, EntityBlueprintAndKey> trackedChildren;
-    private final SetValuedMap<FieldBlueprintAndKey, Object> trackedFlattenedCollectionValues;
+    // Each snapshot holds the value of every column, in the same order as TableBlueprint.getColumns(). Rows of
+    // fetched entities wait in lazySnapshots until a save needs them, so transactions that only read never take them.
+    private final Map<TableBlueprintAndKey, Object[]> trackedValues;
+    private final Map<TableBlueprintAndKey, LazySnapshot> lazySnapshots;
+    private final Map<FieldBlueprintAndKey, CompactValueSet> trackedChildren;
+    private final Map<FieldBlueprintAndKey, CompactValueSet> trackedFlattenedCollectionValues;
 
     public PhotonEntityState()
     {
         this.trackedValues = new HashMap<>();
-        this.trackedChildren = new HashSetValuedHashMap<>();
-        this.trackedFlattenedCollectionValues = new HashSetValuedHashMap<>();
+        this.lazySnapshots = new HashMap<>();
+        this.trackedChildren = new HashMap<>();
+        this.trackedFlattenedCollectionValues = new HashMap<>();
     }
 
     public void track(PopulatedEntity<?> populatedEntity)
     {
+        LazySnapshot lazySnapshot =
+            populatedEntity.getPhotonQueryResultRow() != null ? new LazySnapshot(populatedEntity) : null;
+
         for(TableBlueprint tableBlueprint : populatedEntity.getEntityBlueprint().getTableBlueprintsForInsertOrUpdate())
         {
-            Map<String, ParameterValue> values = populatedEntity
+            if(lazySnapshot != null)
+            {
+                TableBlueprintAndKey key = new TableBlueprintAndKey(tableBlueprint, populatedEntity.getPrimaryKey());
+                if(canTrack(key))
+                {
+                    trackedValues.remove(key);
+                    lazySnapshots.put(key, lazySnapshot);
+                }
+                continue;
+            }
+
+            Object[] values = populatedEntity
                 .getParameterValuesForUpdate(tableBlueprint, populatedEntity.getParentPopulatedEntity(), null)
-                .getValues();
+                .getSnapshot();
 
             updateTrackedValues(tableBlueprint, populatedEntity.getPrimaryKey(), values);
         }
@@ -47,18 +61,18 @@ public class PhotonEntityState
                 new FieldBlueprintAndKey(fieldBlueprint, populatedEntity.getPrimaryKey());
             trackedChildren.remove(parentBlueprintAndKey);
 
-            List<TableValue> childKeys = populatedEntity
-                .getChildPopulatedEntitiesForField(fieldBlueprint)
-                .stream()
-                .map(PopulatedEntity::getPrimaryKey)
-                .collect(Collectors.toList());
+            List<PopulatedEntity<?>> childPopulatedEntities = populatedEntity.getChildPopulatedEntitiesForField(fieldBlueprint);
+            if(childPopulatedEntities.isEmpty())
+            {
+                continue;
+            }
 
-            for(TableValue childKey : childKeys)
+            CompactValueSet childKeys = new CompactValueSet(childPopulatedEntities.size());
+            for(PopulatedEntity<?> childPopulatedEntity : childPopulatedEntities)
             {
-                trackedChildren.put(
-                    parentBlueprintAndKey,
-                    new EntityBlueprintAndKey(fieldBlueprint.getChildEntityBlueprint(), childKey));
+                childKeys.add(childPopulatedEntity.getPrimaryKey().getValue());
             }
+            trackedChildren.put(parentBlueprintAndKey, childKeys);
         }
 
         for(FieldBlueprint fieldBlueprint : populatedEntity.getEntityBlueprint().getFlattenedCollectionFields())
@@ -67,12 +81,15 @@ public class PhotonEntityState
                 new FieldBlueprintAndKey(fieldBlueprint, populatedEntity.getPrimaryKey());
             trackedFlattenedCollectionValues.remove(parentBlueprintAndKey);
 
-            Collection flattenedCollectionValues = (Collection) populatedEntity.getInstanceValue(fieldBlueprint, null);
-            if(flattenedCollectionValues == null)
+            Collection<?> flattenedCollectionValues = (Collection) populatedEntity.getInstanceValue(fieldBlueprint, null);
+            if(flattenedCollectionValues == null || flattenedCollectionValues.isEmpty())
             {
-                flattenedCollectionValues = Collections.emptyList();
+                continue;
             }
-            trackedFlattenedCollectionValues.putAll(parentBlueprintAndKey, flattenedCollectionValues);
+
+            CompactValueSet values = new CompactValueSet(flattenedCollectionValues.size());
+            flattenedCollectionValues.forEach(values::add);
+            trackedFlattenedCollectionValues.put(parentBlueprintAndKey, values);
         }
     }
 
@@ -81,57 +98,91 @@ public class PhotonEntityState
         populatedEntityMap.getAllPopulatedEntities().forEach(this::track);
     }
 
-    public Map<String, ParameterValue> getTrackedValues(TableBlueprint tableBlueprint, TableValue primaryKey)
+    /**
+     * Gets the snapshot of the column values for a tracked table row.
+     *
+     * @param tableBlueprint - the table blueprint
+     * @param primaryKey - the primary key of the row
+     * @return - the database value of each column, indexed like TableBlueprint.getColumns(), or null if the row is
+     * not tracked
+     */
+    public Object[] getTrackedValues(TableBlueprint tableBlueprint, TableValue primaryKey)
     {
-        Map<String, ParameterValue> values = trackedValues.get(new TableBlueprintAndKey(tableBlueprint, primaryKey));
-        return values != null ? values : Collections.emptyMap();
+        TableBlueprintAndKey key = new TableBlueprintAndKey(tableBlueprint, primaryKey);
+        Object[] values = trackedValues.get(key);
+        if(values != null)
+        {
+            return values;
+        }
+
+        LazySnapshot lazySnapshot = lazySnapshots.remove(key);
+        if(lazySnapshot == null)
+        {
+            return null;
+        }
+        values = lazySnapshot.take(tableBlueprint);
+        if(values != null)
+        {
+            trackedValues.put(key, values);
+        }
+        return values;
     }
 
     public List<TableValue> getTrackedKeys(TableBlueprint tableBlueprint, List<TableValue> primaryKeys)
     {
         return primaryKeys
             .stream()
-            .filter(p -> (trackedValues.containsKey(new TableBlueprintAndKey(tableBlueprint, p))))
+            .map(p -> new TableBlueprintAndKey(tableBlueprint, p))
+            .filter(k -> trackedValues.containsKey(k) || lazySnapshots.containsKey(k))
+            .map(TableBlueprintAndKey::getPrimaryKey)
             .collect(Collectors.toList());
     }
 
-    public void updateTrackedValues(TableBlueprint tableBlueprint, TableValue tableKey, Map<String, ParameterValue> values)
+    public void updateTrackedValues(TableBlueprint tableBlueprint, TableValue tableKey, Object[] values)
     {
         updateTrackedValues(new TableBlueprintAndKey(tableBlueprint, tableKey), values);
     }
 
-    public void updateTrackedValues(TableBlueprintAndKey key, Map<String, ParameterValue> values)
+    public void updateTrackedValues(TableBlueprintAndKey key, Object[] values)
+    {
+        if(!canTrack(key))
+        {
+            return;
+        }
+        lazySnapshots.remove(key);
+        if(values == null)
+        {
+            // There is no snapshot if the entity's values could not be read, so the row is no longer tracked.
+            trackedValues.remove(key);
+            return;
+        }
+        trackedValues.put(key, values);
+    }
+
+    private boolean canTrack(TableBlueprintAndKey key)
     {
         if(!key.getTableBlueprint().isPrimaryKeyMappedToField())
         {
             // We can't track the entity if the primary key is not mapped to a field.
-            return;
+            return false;
         }
         if(key.getPrimaryKey().getValue() == null)
         {
             throw new PhotonException("Null table primary keys are not allowed in tracking.");
         }
-        trackedValues.remove(key);
-        trackedValues.put(key, values);
+        return true;
     }
 
     public Set<TableValue> getTrackedChildrenKeys(FieldBlueprint fieldBlueprint, TableValue parentKey)
     {
-        FieldBlueprintAndKey parentBlueprintAndKey = new FieldBlueprintAndKey(fieldBlueprint, parentKey);
-        if (!trackedChildren.containsKey(parentBlueprintAndKey))
-        {
-            return null;
-        }
-        return trackedChildren
-            .get(parentBlueprintAndKey)
-            .stream()
-            .map(EntityBlueprintAndKey::getPrimaryKey)
-            .collect(Collectors.toSet());
+        CompactValueSet childKeys = trackedChildren.get(new FieldBlueprintAndKey(fieldBlueprint, parentKey));
+        return childKeys != null ? childKeys.toTableValues() : null;
     }
 
     public Collection getTrackedFlattenedCollectionValues(FieldBlueprint fieldBlueprint, TableValue primaryKey)
     {
-        return trackedFlattenedCollectionValues.get(new FieldBlueprintAndKey(fieldBlueprint, primaryKey));
+        CompactValueSet values = trackedFlattenedCollectionValues.get(new FieldBlueprintAndKey(fieldBlueprint, primaryKey));
+        return values != null ? values.toList() : Collections.emptyList();
     }
 
     public void addTrackedChild(
@@ -144,9 +195,9 @@ public class PhotonEntityState
         {
             throw new PhotonException("Null table primary keys are not allowed in tracking.");
         }
-        trackedChildren.put(
-            new FieldBlueprintAndKey(fieldBlueprint, parentKey),
-            new EntityBlueprintAndKey(childEntityBlueprint, childKey));
+        trackedChildren
+            .computeIfAbsent(new FieldBlueprintAndKey(fieldBlueprint, parentKey), k -> new CompactValueSet(1))
+            .add(childKey.getValue());
     }
 
     public void untrack(PopulatedEntity<?> populatedEntity)
@@ -155,6 +206,7 @@ public class PhotonEntityState
         {
             TableBlueprintAndKey key = new TableBlueprintAndKey(tableBlueprint, populatedEntity.getPrimaryKey());
             trackedValues.remove(key);
+            lazySnapshots.remove(key);
         }
 
         for (FieldBlueprint fieldBlueprint : populatedEntity.getEntityBlueprint().getFlattenedCollectionFields())
@@ -164,14 +216,14 @@ public class PhotonEntityState
 
         for(FieldBlueprint fieldBlueprint : populatedEntity.getEntityBlueprint().getFieldsWithChildEntities())
         {
+            List<TableValue> childKeys = populatedEntity
+                .getChildPopulatedEntitiesForField(fieldBlueprint)
+                .stream()
+                .map(PopulatedEntity::getPrimaryKey)
+                .collect(Collectors.toList());
+
             for(TableBlueprint tableBlueprint : fieldBlueprint.getChildEntityBlueprint().getTableBlueprintsForDelete())
             {
-                List<TableValue> childKeys = populatedEntity
-                    .getChildPopulatedEntitiesForField(fieldBlueprint)
-                    .stream()
-                    .map(PopulatedEntity::getPrimaryKey)
-                    .collect(Collectors.toList());
-
                 untrackChildrenRecursive(
                     fieldBlueprint,
                     populatedEntity.getPrimaryKey(),
@@ -194,6 +246,7 @@ public class PhotonEntityState
         {
             TableBlueprintAndKey key = new TableBlueprintAndKey(childTableBlueprint, childKey);
             trackedValues.remove(key);
+            lazySnapshots.remove(key);
         }
 
         for(FieldBlueprint fieldBlueprint : childEntityBlueprint.getFlattenedCollectionFields())
@@ -207,33 +260,36 @@ public class PhotonEntityState
         }
 
         FieldBlueprintAndKey parentBlueprintAndKey = new FieldBlueprintAndKey(parentFieldBlueprint, parentKey);
-        Set<EntityBlueprintAndKey> childKeys = trackedChildren.get(parentBlueprintAndKey);
-        if(childKeys == null)
+        CompactValueSet childKeys = trackedChildren.get(parentBlueprintAndKey);
+        if(childKeys != null)
         {
-            return;
+            childKeysToRemove.forEach(k -> childKeys.remove(k.getValue()));
+            if(childKeys.isEmpty())
+            {
+                trackedChildren.remove(parentBlueprintAndKey);
+            }
         }
 
-        childKeys.removeAll(
-            childKeysToRemove.stream().map(o -> new EntityBlueprintAndKey(childEntityBlueprint, o)).collect(Collectors.toList()));
-
         // All children of orphans are also orphans and need to be removed as well.
         for(FieldBlueprint childFieldBlueprint : childEntityBlueprint.getFieldsWithChildEntities())
         {
             for(TableValue childKey : childKeysToRemove)
             {
-                Set<EntityBlueprintAndKey> grandchildKeys = trackedChildren.get(new FieldBlueprintAndKey(childFieldBlueprint, childKey));
+                CompactValueSet grandchildKeys = trackedChildren.get(new FieldBlueprintAndKey(childFieldBlueprint, childKey));
                 if(grandchildKeys == null)
                 {
-                    return;
+                    continue;
                 }
-                EntityBlueprint grandchildEntityBlueprint =childFieldBlueprint.getChildEntityBlueprint();
+                EntityBlueprint grandchildEntityBlueprint = childFieldBlueprint.getChildEntityBlueprint();
                 for(TableBlueprint grandchildTableBlueprint : grandchildEntityBlueprint.getTableBlueprintsForDelete())
-                untrackChildrenRecursive(
-                    childFieldBlueprint,
-                    childKey,
-                    grandchildEntityBlueprint,
-                    grandchildTableBlueprint,
-                    grandchildKeys.stream().map(EntityBlueprintAndKey::getPrimaryKey).collect(Collectors.toList()));
+                {
+                    untrackChildrenRecursive(
+                        childFieldBlueprint,
+                        childKey,
+                        grandchildEntityBlueprint,
+                        grandchildTableBlueprint,
+                        grandchildKeys.toList().stream().map(TableValue::new).collect(Collectors.toList()));
+                }
             }
         }
     }
@@ -1,5 +1,6 @@
 package com.github.molcikas.photon;
 
+import com.github.molcikas.photon.datasource.StatementCachingConnection;
 import com.github.molcikas.photon.query.*;
 import lombok.extern.slf4j.Slf4j;
 import com.github.molcikas.photon.exceptions.PhotonException;
@@ -16,6 +17,7 @@ import java.util.*;
 public class PhotonTransaction implements Closeable
 {
     private final Connection connection;
+    private final StatementCachingConnection statementCachingConnection;
     private final Map<Class, AggregateBlueprint> registeredAggregates;
     private final Map<String, AggregateBlueprint> registeredViewModelAggregates;
     private final Photon photon;
@@ -29,7 +31,9 @@ public class PhotonTransaction implements Closeable
         Map<String, AggregateBlueprint> registeredViewModelAggregates,
         Photon photon)
     {
-        this.connection = connection;
+        this.statementCachingConnection =
+            new StatementCachingConnection(connection, photon.getOptions().getStatementCacheSize());
+        this.connection = statementCachingConnection;
         this.registeredAggregates = registeredAggregates;
         this.registeredViewModelAggregates = registeredViewModelAggregates;
         this.photon = photon;
@@ -371,7 +375,7 @@ public class PhotonTransaction implements Closeable
 
     /**
      * Close the connection without committing. If commit() was already called, calling this method will have
-     * no effect.
+     * no effect. All prepared statements cached by this transaction are closed.
      */
     public void close()
     {
@@ -409,6 +413,27 @@ public class PhotonTransaction implements Closeable
         return hasUncommittedChanges;
     }
 
+    /**
+     * Returns the number of times a prepared statement was reused from this transaction's statement cache.
+     *
+     * @return - the number of statement cache hits
+     */
+    public long getStatementCacheHits()
+    {
+        return statementCachingConnection.getCacheHits();
+    }
+
+    /**
+     * Returns the number of times a prepared statement was not found in this transaction's statement cache and had
+     * to be prepared.
+     *
+     * @return - the number of statement cache misses
+     */
+    public long getStatementCacheMisses()
+    {
+        return statementCachingConnection.getCacheMisses();
+    }
+
     private <T> AggregateBlueprint<T> getViewModelAggregateBlueprint(Class<T> aggregateClass, String viewModelAggregateBlueprintName)
     {
         AggregateBlueprint<T> aggregateBlueprint = registeredViewModelAggregates.get(viewModelAggregateBlueprintName);
@@ -3,15 +3,22 @@ package com.github.molcikas.photon.blueprints.entity;
 import com.github.molcikas.photon.blueprints.table.ColumnBlueprint;
 import com.github.molcikas.photon.blueprints.table.TableBlueprint;
 import com.github.molcikas.photon.exceptions.PhotonException;
+import com.github.molcikas.photon.query.ColumnReader;
+import com.github.molcikas.photon.query.PhotonRowReader;
 import lombok.Getter;
 import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.ListValuedMap;
 import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.apache.commons.lang3.StringUtils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 public class EntityBlueprint
@@ -37,6 +44,12 @@ public class EntityBlueprint
     @Getter
     private final ChildCollectionConstructor childCollectionConstructor;
 
+    @Getter
+    private final FetchStrategy fetchStrategy;
+
+    @Getter
+    private final List<FieldBlueprint> joinFetchedChildFields;
+
     @Getter
     private final TableBlueprint tableBlueprint;
 
@@ -69,6 +82,24 @@ public class EntityBlueprint
 
     private final Map<String, FieldBlueprint> fieldForColumnNameUnqualified;
 
+    private final PhotonRowReader rowReader;
+
+    private final PhotonRowReader rowReaderQualified;
+
+    private final PhotonRowReader rowReaderWithJoinFetchedChildren;
+
+    private final FieldBlueprint[] fieldsBySlot;
+
+    private final FieldBlueprint[] fieldsBySlotQualified;
+
+    @Getter
+    private final int primaryKeySlot;
+
+    @Getter
+    private final int foreignKeyToParentSlot;
+
+    private final ConcurrentMap<Class, MethodHandle> instantiators;
+
     EntityBlueprint(
         Class entityClass,
         EntityClassDiscriminator entityClassDiscriminator,
@@ -76,13 +107,16 @@ public class EntityBlueprint
         TableBlueprint tableBlueprint,
         List<TableBlueprint> joinedTableBlueprints,
         boolean mainTableInsertedFirst,
-        ChildCollectionConstructor childCollectionConstructor)
+        ChildCollectionConstructor childCollectionConstructor,
+        FetchStrategy fetchStrategy)
     {
         this.entityClass = entityClass;
         this.entityClassDiscriminator = entityClassDiscriminator;
         this.tableBlueprint = tableBlueprint;
         this.joinedTableBlueprints = Collections.unmodifiableList(joinedTableBlueprints);
         this.childCollectionConstructor = childCollectionConstructor;
+        this.fetchStrategy = fetchStrategy;
+        this.instantiators = new ConcurrentHashMap<>();
 
         this.fields = fields
             .stream()
@@ -93,6 +127,11 @@ public class EntityBlueprint
             .filter(f -> f.getFieldType() == FieldType.Entity || f.getFieldType() == FieldType.EntityList)
             .collect(Collectors.toList()));
 
+        this.joinFetchedChildFields = Collections.unmodifiableList(fieldsWithChildEntities
+            .stream()
+            .filter(f -> f.getChildEntityBlueprint().getFetchStrategy() == FetchStrategy.Join)
+            .collect(Collectors.toList()));
+
         this.flattenedCollectionFields = Collections.unmodifiableList(fields
             .stream()
             .filter(f -> f.getFieldType() == FieldType.FlattenedCollection)
@@ -148,6 +187,29 @@ public class EntityBlueprint
             }
         }
 
+        List<ColumnReader> columnReaders = allColumns
+            .stream()
+            .map(this::getColumnReader)
+            .collect(Collectors.toList());
+        this.rowReader = new PhotonRowReader(allColumnNames, allColumnNamesLowerCase, columnReaders);
+        this.rowReaderQualified =
+            new PhotonRowReader(allColumnNamesQualified, allColumnNamesQualifiedLowerCase, columnReaders);
+        List<PhotonRowReader> joinFetchedRowReaders = new ArrayList<>(joinFetchedChildFields.size() + 1);
+        joinFetchedRowReaders.add(rowReaderQualified);
+        joinFetchedChildFields.forEach(f -> joinFetchedRowReaders.add(f.getChildEntityBlueprint().getRowReader(true)));
+        this.rowReaderWithJoinFetchedChildren = PhotonRowReader.concat(joinFetchedRowReaders);
+        this.fieldsBySlot = new FieldBlueprint[allColumns.size()];
+        this.fieldsBySlotQualified = new FieldBlueprint[allColumns.size()];
+        for(int slot = 0; slot < allColumns.size(); slot++)
+        {
+            fieldsBySlot[slot] = fieldForColumnNameUnqualified.get(allColumnNames.get(slot));
+            fieldsBySlotQualified[slot] = fieldForColumnNameQualified.get(allColumnNamesQualified.get(slot));
+        }
+        this.primaryKeySlot = allColumns.indexOf(tableBlueprint.getPrimaryKeyColumn());
+        this.foreignKeyToParentSlot = tableBlueprint.getForeignKeyToParentColumn() != null ?
+            allColumns.indexOf(tableBlueprint.getForeignKeyToParentColumn()) :
+            -1;
+
         List<TableBlueprint> allTableBlueprints = ListUtils.union(Collections.singletonList(tableBlueprint), joinedTableBlueprints);
         if(mainTableInsertedFirst)
         {
@@ -169,7 +231,86 @@ public class EntityBlueprint
             .orElse(null);
     }
 
+    /**
+     * Returns the row reader for the columns of this entity and its joined tables.
+     *
+     * @param columnsFullyQualified - whether the columns are selected with fully qualified names
+     * @return - the row reader
+     */
+    public PhotonRowReader getRowReader(boolean columnsFullyQualified)
+    {
+        return columnsFullyQualified ? rowReaderQualified : rowReader;
+    }
+
+    /**
+     * Returns the row reader for the fully qualified columns of this entity, followed by the columns of each child
+     * entity that is fetched with a join, in the order of getJoinFetchedChildFields().
+     *
+     * @return - the row reader
+     */
+    public PhotonRowReader getRowReaderWithJoinFetchedChildren()
+    {
+        return rowReaderWithJoinFetchedChildren;
+    }
+
+    /**
+     * Returns the field that is mapped to the column in a slot of this entity's row reader.
+     *
+     * @param slot - the row reader slot
+     * @param columnsFullyQualified - whether the row was read with the fully qualified row reader
+     * @return - the field, or null if the column is not mapped to a field
+     */
+    public FieldBlueprint getFieldForSlot(int slot, boolean columnsFullyQualified)
+    {
+        return columnsFullyQualified ? fieldsBySlotQualified[slot] : fieldsBySlot[slot];
+    }
+
+    private ColumnReader getColumnReader(ColumnBlueprint columnBlueprint)
+    {
+        FieldBlueprint fieldBlueprint = columnBlueprint.getMappedFieldBlueprint();
+        if(fieldBlueprint == null ||
+            fieldBlueprint.getFieldType() != FieldType.Primitive ||
+            fieldBlueprint.getCustomHydrater() != null)
+        {
+            // Custom hydraters and value mappers expect the value as returned by getObject().
+            return ColumnReader.OBJECT;
+        }
+        return ColumnReader.forField(columnBlueprint.getColumnDataType(), fieldBlueprint.getFieldClass());
+    }
+
+    public boolean hasEntityClassDiscriminator()
+    {
+        return entityClassDiscriminator != null;
+    }
+
     public Constructor getEntityConstructor(Map<String, Object> entityValues)
+    {
+        return getDeclaredConstructor(getClassToConstruct(entityValues));
+    }
+
+    /**
+     * Constructs an instance of the entity class, or of the class returned by the entity class discriminator. The
+     * constructor for each concrete class is looked up once and then reused.
+     *
+     * @param entityValues - the database values for the entity, used by the entity class discriminator
+     * @return - the new entity instance
+     */
+    public Object constructEntityInstance(Map<String, Object> entityValues)
+    {
+        Class classToConstruct = getClassToConstruct(entityValues);
+        MethodHandle instantiator = instantiators.computeIfAbsent(classToConstruct, this::createInstantiator);
+
+        try
+        {
+            return (Object) instantiator.invokeExact();
+        }
+        catch (Throwable ex)
+        {
+            throw new PhotonException(ex, "Error constructing entity class '%s'.", classToConstruct.getName());
+        }
+    }
+
+    private Class getClassToConstruct(Map<String, Object> entityValues)
     {
         Class classToConstruct = null;
 
@@ -182,6 +323,25 @@ public class EntityBlueprint
             classToConstruct = entityClass;
         }
 
+        return classToConstruct;
+    }
+
+    private MethodHandle createInstantiator(Class classToConstruct)
+    {
+        try
+        {
+            return MethodHandles.lookup()
+                .unreflectConstructor(getDeclaredConstructor(classToConstruct))
+                .asType(MethodType.methodType(Object.class));
+        }
+        catch (IllegalAccessException ex)
+        {
+            throw new PhotonException(ex, "Error creating instantiator for entity class '%s'.", classToConstruct);
+        }
+    }
+
+    private Constructor getDeclaredConstructor(Class classToConstruct)
+    {
         try
         {
             Constructor constructor = classToConstruct.getDeclaredConstructor();
@@ -198,6 +358,11 @@ public class EntityBlueprint
         }
     }
 
+    public FieldBlueprint getField(String fieldName)
+    {
+        return fields.get(fieldName);
+    }
+
     public Field getReflectedField(String fieldName)
     {
         FieldBlueprint fieldBlueprint = fields.get(fieldName);
@@ -34,6 +34,7 @@ public class EntityBlueprintBuilder
     private final Map<String, Converter> customFieldHydraters;
     private String versionField;
     private ChildCollectionConstructor childCollectionConstructor;
+    private FetchStrategy fetchStrategy;
 
     private final TableBlueprintBuilder tableBlueprintBuilder;
     private final List<JoinedTableBlueprintBuilder> joinedTableBuilders;
@@ -71,6 +72,7 @@ public class EntityBlueprintBuilder
         this.tableBlueprintBuilder = new TableBlueprintBuilder(this, photon.getOptions());
         this.joinedTableBuilders = new ArrayList<>();
         this.mainTableInsertedFirst = true;
+        this.fetchStrategy = FetchStrategy.Select;
     }
 
     /**
@@ -90,6 +92,29 @@ public class EntityBlueprintBuilder
         return this;
     }
 
+    /**
+     * Sets how this child entity is selected when its aggregate is fetched. Defaults to FetchStrategy.Select, which
+     * selects the child entities with their own query. FetchStrategy.Join selects them with their parent entities
+     * through a LEFT JOIN, which saves a query but repeats the parent columns for each child, so it is best suited for
+     * one-to-one children and small child collections.
+     *
+     * @param fetchStrategy - the fetch strategy
+     * @return - builder for chaining
+     */
+    public EntityBlueprintBuilder withFetchStrategy(FetchStrategy fetchStrategy)
+    {
+        if(parentBuilder == null)
+        {
+            throw new PhotonException("withFetchStrategy cannot be called on an aggregate root entity.");
+        }
+        if(fetchStrategy == null)
+        {
+            throw new PhotonException("Fetch strategy cannot be null.");
+        }
+        this.fetchStrategy = fetchStrategy;
+        return this;
+    }
+
     /**
      * Adds a super or sub class's fields to the entity, and auto-maps them to database columns. This can be used
      * to simply include fields in a sub or super class, or can be combined with withClassDiscriminator() to implement
@@ -426,6 +451,21 @@ public class EntityBlueprintBuilder
         return this;
     }
 
+    /**
+     * Sets whether the select for the entities sorts by the primary keys of the entity and its parents. Defaults to
+     * true. Child entities are matched to their parents without relying on the sort order, so this can be set to false
+     * to save the database a sort when the order of the entities does not matter. The order by SQL for this entity is
+     * still applied.
+     *
+     * @param orderByKeys - whether to sort by the primary keys
+     * @return - builder for chaining
+     */
+    public EntityBlueprintBuilder withOrderByKeys(boolean orderByKeys)
+    {
+        tableBlueprintBuilder.withOrderByKeys(orderByKeys);
+        return this;
+    }
+
     /**
      * Creates a builder that is used to build the blueprint for a child entity.
      *
@@ -570,6 +610,27 @@ public class EntityBlueprintBuilder
             fieldBlueprint.get().setAsVersionField();
         }
 
+        if(fetchStrategy == FetchStrategy.Join)
+        {
+            if(!joinedTableBlueprints.isEmpty())
+            {
+                throw new PhotonException("Entity '%s' cannot be fetched with a join because it has joined tables.", entityClass.getName());
+            }
+            Optional<EntityBlueprintBuilder> joinedChild = childEntityBuilders
+                .values()
+                .stream()
+                .filter(c -> c.fetchStrategy == FetchStrategy.Join)
+                .findFirst();
+            if(joinedChild.isPresent())
+            {
+                throw new PhotonException(
+                    "Entity '%s' cannot be fetched with a join because its parent '%s' is also fetched with a join.",
+                    joinedChild.get().getEntityClass().getName(),
+                    entityClass.getName()
+                );
+            }
+        }
+
         EntityBlueprint entityBlueprint = new EntityBlueprint(
             entityClass,
             entityClassDiscriminator,
@@ -577,7 +638,8 @@ public class EntityBlueprintBuilder
             tableBlueprint,
             joinedTableBlueprints,
             mainTableInsertedFirst,
-            childCollectionConstructor
+            childCollectionConstructor,
+            fetchStrategy
         );
 
         childEntities.values().forEach(e -> e.setMainTableBlueprintParent(entityBlueprint.getTableBlueprintsForInsertOrUpdate()));
@@ -0,0 +1,126 @@
+package com.github.molcikas.photon.blueprints.entity;
+
+import com.github.molcikas.photon.converters.Converter;
+import lombok.EqualsAndHashCode;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * A bounded LRU cache of entity blueprints built for mapping the results of ad-hoc queries. Blueprints are keyed by
+ * the entity class and everything else that changes how the blueprint is built, so a query that maps the same class
+ * the same way reuses the blueprint instead of rebuilding it.
+ */
+public class EntityBlueprintCache
+{
+    private final int maxCachedBlueprints;
+    private final Map<Key, EntityBlueprint> entityBlueprints;
+
+    private long cacheHits = 0;
+    private long cacheMisses = 0;
+
+    public EntityBlueprintCache(int maxCachedBlueprints)
+    {
+        this.maxCachedBlueprints = maxCachedBlueprints;
+        this.entityBlueprints = new LinkedHashMap<Key, EntityBlueprint>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, EntityBlueprint> eldest)
+            {
+                return size() > EntityBlueprintCache.this.maxCachedBlueprints;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of times a blueprint was reused from the cache.
+     *
+     * @return - the number of cache hits
+     */
+    public synchronized long getCacheHits()
+    {
+        return cacheHits;
+    }
+
+    /**
+     * Returns the number of times a blueprint was not in the cache and had to be built.
+     *
+     * @return - the number of cache misses
+     */
+    public synchronized long getCacheMisses()
+    {
+        return cacheMisses;
+    }
+
+    /**
+     * Gets the cached blueprint for a query mapping, or builds and caches it if it is not in the cache. Field
+     * hydraters and class discriminators are compared by identity, so they should be reused across queries for the
+     * blueprint to be reused.
+     *
+     * @param entityClass - the class the query results are mapped to
+     * @param entityClassDiscriminator - the class discriminator, or null
+     * @param mappedClasses - the mapped classes
+     * @param customFieldHydraters - the custom field hydraters by field name
+     * @param entityBlueprintBuilder - builds the blueprint if it is not in the cache
+     * @return - the entity blueprint
+     */
+    public EntityBlueprint getOrBuild(
+        Class entityClass,
+        EntityClassDiscriminator entityClassDiscriminator,
+        List<MappedClassBlueprint> mappedClasses,
+        Map<String, Converter> customFieldHydraters,
+        Supplier<EntityBlueprint> entityBlueprintBuilder)
+    {
+        if(maxCachedBlueprints == 0)
+        {
+            return entityBlueprintBuilder.get();
+        }
+
+        Key key = new Key(entityClass, entityClassDiscriminator, mappedClasses, customFieldHydraters);
+
+        synchronized (this)
+        {
+            EntityBlueprint entityBlueprint = entityBlueprints.get(key);
+            if(entityBlueprint != null)
+            {
+                cacheHits++;
+                return entityBlueprint;
+            }
+            cacheMisses++;
+        }
+
+        // Build outside the lock so that slow builds do not block queries for other classes. If two threads miss at
+        // the same time, both build the blueprint and the last one is kept.
+        EntityBlueprint entityBlueprint = entityBlueprintBuilder.get();
+
+        synchronized (this)
+        {
+            entityBlueprints.put(key, entityBlueprint);
+        }
+
+        return entityBlueprint;
+    }
+
+    @EqualsAndHashCode
+    private static class Key
+    {
+        private final Class entityClass;
+        private final EntityClassDiscriminator entityClassDiscriminator;
+        private final List<MappedClassBlueprint> mappedClasses;
+        private final Map<String, Converter> customFieldHydraters;
+
+        private Key(
+            Class entityClass,
+            EntityClassDiscriminator entityClassDiscriminator,
+            List<MappedClassBlueprint> mappedClasses,
+            Map<String, Converter> customFieldHydraters)
+        {
+            this.entityClass = entityClass;
+            this.entityClassDiscriminator = entityClassDiscriminator;
+            this.mappedClasses = new ArrayList<>(mappedClasses);
+            this.customFieldHydraters = new HashMap<>(customFieldHydraters);
+        }
+    }
+}
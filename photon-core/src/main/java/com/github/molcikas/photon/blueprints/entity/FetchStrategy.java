@@ -0,0 +1,15 @@
+package com.github.molcikas.photon.blueprints.entity;
+
+public enum FetchStrategy
+{
+    /**
+     * The child entities are selected with their own query.
+     */
+    Select,
+
+    /**
+     * The child entities are selected with their parent entities by a LEFT JOIN in the parent's query. Use this for
+     * one-to-one children and small child collections.
+     */
+    Join
+}
@@ -5,13 +5,20 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
 import com.github.molcikas.photon.converters.Converter;
+import com.github.molcikas.photon.converters.ResolvedConverter;
 import com.github.molcikas.photon.exceptions.PhotonException;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.util.Collection;
 
 public class FieldBlueprint
 {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
     @Getter
     private final Field reflectedField;
 
@@ -42,6 +49,10 @@ public class FieldBlueprint
     @Getter
     private boolean isVersionField = false;
 
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final ResolvedConverter registeredHydrater;
+
     public FieldBlueprint(Field reflectedField,
                           EntityBlueprint childEntityBlueprint,
                           FlattenedCollectionBlueprint flattenedCollectionBlueprint,
@@ -60,15 +71,29 @@ public class FieldBlueprint
             this.reflectedField = reflectedField;
             this.fieldName = reflectedField.getName();
             this.fieldClass = reflectedField.getType();
+
+            try
+            {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                this.getter = lookup.unreflectGetter(reflectedField).asType(GETTER_TYPE);
+                this.setter = lookup.unreflectSetter(reflectedField).asType(SETTER_TYPE);
+            }
+            catch(IllegalAccessException ex)
+            {
+                throw new PhotonException(ex, "Error creating accessors for field '%s'.", fieldName);
+            }
         }
         else
         {
             this.reflectedField = null;
             this.fieldName = null;
             this.fieldClass = null;
+            this.getter = null;
+            this.setter = null;
         }
 
         this.customHydrater = customHydrater;
+        this.registeredHydrater = fieldClass != null ? new ResolvedConverter(fieldClass) : null;
 
         if(entityFieldValueMapping != null)
         {
@@ -142,6 +167,58 @@ public class FieldBlueprint
         }
     }
 
+    /**
+     * Gets the converter for converting database values into values for this field. This is the custom hydrater if
+     * the field has one, otherwise it is the registered converter for the field's class.
+     *
+     * @return - the converter, or null if there is no converter for the field
+     */
+    public Converter getHydrater()
+    {
+        if(customHydrater != null)
+        {
+            return customHydrater;
+        }
+        return registeredHydrater != null ? registeredHydrater.get() : null;
+    }
+
+    /**
+     * Determines whether the entity instance has this field. An entity blueprint with a class discriminator can have
+     * fields that exist on some of its sub-classes but not others.
+     *
+     * @param entityInstance - the entity instance
+     * @return - true if the field is declared on the instance's class or one of its super classes
+     */
+    public boolean isFieldOf(Object entityInstance)
+    {
+        return reflectedField != null && reflectedField.getDeclaringClass().isInstance(entityInstance);
+    }
+
+    /**
+     * Gets the value of this field on an entity instance.
+     *
+     * @param entityInstance - the entity instance
+     * @return - the field value
+     * @throws Throwable - if the value cannot be read
+     */
+    public Object getValue(Object entityInstance) throws Throwable
+    {
+        return (Object) getter.invokeExact(entityInstance);
+    }
+
+    /**
+     * Sets the value of this field on an entity instance. Boxed values are unboxed and widened for primitive fields
+     * in the same way as Field.set().
+     *
+     * @param entityInstance - the entity instance
+     * @param value - the value to set
+     * @throws Throwable - if the value cannot be set
+     */
+    public void setValue(Object entityInstance, Object value) throws Throwable
+    {
+        setter.invokeExact(entityInstance, value);
+    }
+
     public void setAsVersionField()
     {
         if(reflectedField == null || fieldClass == null)
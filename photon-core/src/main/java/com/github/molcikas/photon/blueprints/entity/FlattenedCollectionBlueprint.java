@@ -1,9 +1,12 @@
 package com.github.molcikas.photon.blueprints.entity;
 
 import com.github.molcikas.photon.blueprints.table.ColumnDataType;
+import com.github.molcikas.photon.converters.Converter;
+import com.github.molcikas.photon.converters.ResolvedConverter;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
 import com.github.molcikas.photon.exceptions.PhotonException;
+import com.github.molcikas.photon.query.PhotonRowReader;
 
 import java.util.Arrays;
 import java.util.List;
@@ -31,9 +34,17 @@ public class FlattenedCollectionBlueprint
     @Getter
     private final ColumnDataType columnDataType;
 
+    @Getter
+    private final PhotonRowReader selectRowReader;
+
+    private final ResolvedConverter valueConverter;
+
     @Getter
     private String selectSql;
 
+    @Getter
+    private String selectWhereInSql;
+
     @Getter
     private String insertSql;
 
@@ -57,6 +68,13 @@ public class FlattenedCollectionBlueprint
         this.columnName = columnName;
         this.columnNameLowerCase = columnName.toLowerCase();
         this.columnDataType = columnDataType;
+        this.selectRowReader = new PhotonRowReader(getSelectColumnNames(), getSelectColumnNamesLowerCase());
+        this.valueConverter = new ResolvedConverter(fieldClass);
+    }
+
+    public Converter getValueConverter()
+    {
+        return valueConverter.get();
     }
 
     public List<String> getSelectColumnNames()
@@ -78,6 +96,15 @@ public class FlattenedCollectionBlueprint
         this.selectSql = selectSql;
     }
 
+    public void setSelectWhereInSql(String selectWhereInSql)
+    {
+        if(StringUtils.isBlank(selectWhereInSql))
+        {
+            throw new PhotonException("Select where in SQL cannot be blank.");
+        }
+        this.selectWhereInSql = selectWhereInSql;
+    }
+
     public void setInsertSql(String insertSql)
     {
         if(StringUtils.isBlank(insertSql))
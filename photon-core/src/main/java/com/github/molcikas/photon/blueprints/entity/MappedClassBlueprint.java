@@ -1,6 +1,7 @@
 package com.github.molcikas.photon.blueprints.entity;
 
 import com.github.molcikas.photon.exceptions.PhotonException;
+import lombok.EqualsAndHashCode;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -9,6 +10,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
+@EqualsAndHashCode
 public class MappedClassBlueprint
 {
     private final Class mappedClass;
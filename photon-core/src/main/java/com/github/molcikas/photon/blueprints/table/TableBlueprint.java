@@ -7,6 +7,7 @@ import com.github.molcikas.photon.converters.Converter;
 import com.github.molcikas.photon.exceptions.PhotonException;
 import com.github.molcikas.photon.options.PhotonOptions;
 import com.github.molcikas.photon.query.PopulatedEntity;
+import com.github.molcikas.photon.sqlbuilders.InsertSqlBuilderService;
 import com.github.molcikas.photon.sqlbuilders.UpdateSqlBuilderService;
 import lombok.Getter;
 import lombok.Setter;
@@ -26,6 +27,7 @@ public class TableBlueprint
     private String tableName;
     private JoinType joinType;
     private String orderBySql;
+    private boolean orderByKeys;
     private TableBlueprint parentTableBlueprint;
     private String parentTableName;
     private Class entityClass;
@@ -40,7 +42,28 @@ public class TableBlueprint
     private String selectWhereSql;
 
     @Getter  @Setter
-    private String selectByIdSql;
+    private String selectByIdsSql;
+
+    @Getter  @Setter
+    private String selectKeysWhereSql;
+
+    @Getter  @Setter
+    private String selectFirstKeysSql;
+
+    @Getter  @Setter
+    private String selectNextKeysSql;
+
+    @Getter  @Setter
+    private String createIdTableSql;
+
+    @Getter  @Setter
+    private String insertIdTableSql;
+
+    @Getter  @Setter
+    private String selectIdTableSql;
+
+    @Getter  @Setter
+    private String deleteIdTableSql;
 
     @Setter
     private String updateSql;
@@ -57,6 +80,9 @@ public class TableBlueprint
     @Getter  @Setter
     private String deleteChildrenExceptSql;
 
+    @Getter  @Setter
+    private String deleteChildrenOfParentsSql;
+
     @Getter  @Setter
     private String selectOrphansSql;
 
@@ -64,6 +90,10 @@ public class TableBlueprint
 
     private ConcurrentMap<Set<String>, String> updateSqlCache;
 
+    private ConcurrentMap<Integer, String> multiRowInsertSqlCache;
+
+    private ConcurrentMap<Integer, String> multiRowInsertWithPrimaryKeySqlCache;
+
     TableBlueprint(
         TableBlueprint parentTableBlueprint,
         String parentTableName,
@@ -74,7 +104,8 @@ public class TableBlueprint
         ColumnBlueprint foreignKeyToParentColumn,
         boolean isPrimaryKeyMappedToField,
         String tableName,
-        String orderBySql)
+        String orderBySql,
+        boolean orderByKeys)
     {
         this.parentTableBlueprint = parentTableBlueprint;
         this.parentTableName = parentTableName;
@@ -86,8 +117,11 @@ public class TableBlueprint
         this.isPrimaryKeyMappedToField = isPrimaryKeyMappedToField;
         this.tableName = tableName;
         this.orderBySql = orderBySql;
+        this.orderByKeys = orderByKeys;
         this.deleteOrphansSql = new HashMap<>();
         this.updateSqlCache = new ConcurrentHashMap<>();
+        this.multiRowInsertSqlCache = new ConcurrentHashMap<>();
+        this.multiRowInsertWithPrimaryKeySqlCache = new ConcurrentHashMap<>();
     }
 
     public JoinType getJoinType()
@@ -140,6 +174,11 @@ public class TableBlueprint
         return orderBySql;
     }
 
+    public boolean isOrderByKeys()
+    {
+        return orderByKeys;
+    }
+
     public TableBlueprint getParentTableBlueprint()
     {
         return parentTableBlueprint;
@@ -236,4 +275,12 @@ public class TableBlueprint
             return String.format(updateSql, setClauseSql);
         });
     }
+
+    public String getMultiRowInsertSql(int rowCount, boolean alwaysIncludePrimaryKey, PhotonOptions photonOptions)
+    {
+        ConcurrentMap<Integer, String> cache =
+            alwaysIncludePrimaryKey ? multiRowInsertWithPrimaryKeySqlCache : multiRowInsertSqlCache;
+        return cache.computeIfAbsent(rowCount, (rows) ->
+            InsertSqlBuilderService.buildMultiRowInsertSql(this, rows, alwaysIncludePrimaryKey, photonOptions));
+    }
 }
@@ -23,6 +23,7 @@ public class TableBlueprintBuilder
     private JoinType joinType;
     private boolean isPrimaryKeyAutoIncrement;
     private String orderBySql;
+    private boolean orderByKeys = true;
     private final Map<String, ColumnDataType> customColumnDataTypes;
     private final Map<String, EntityFieldValueMapping> customDatabaseColumns;
     private final Map<List<String>, CompoundEntityFieldValueMapping> customCompoundDatabaseColumns;
@@ -374,6 +375,21 @@ public class TableBlueprintBuilder
         return this;
     }
 
+    /**
+     * Sets whether the select for the entities sorts by the primary keys of the entity and its parents. Defaults to
+     * true. Child entities are matched to their parents without relying on the sort order, so this can be set to false
+     * to save the database a sort when the order of the entities does not matter. The order by SQL for this entity is
+     * still applied.
+     *
+     * @param orderByKeys - whether to sort by the primary keys
+     * @return - builder for chaining
+     */
+    public TableBlueprintBuilder withOrderByKeys(boolean orderByKeys)
+    {
+        this.orderByKeys = orderByKeys;
+        return this;
+    }
+
     public EntityBlueprintBuilder addAsJoinedTable()
     {
         return entityBlueprintBuilder.addAsJoinedTable(this);
@@ -585,7 +601,8 @@ public class TableBlueprintBuilder
             foreignKeyToParentColumn,
             primaryKeyColumn != null && primaryKeyColumn.getMappedFieldBlueprint() != null,
             tableName,
-            orderBySql
+            orderBySql,
+            orderByKeys
         );
     }
 
@@ -11,11 +11,63 @@ public class TableValue
     @Getter
     private final Object value;
 
+    // Computed on first use, since most table values are only bound to statements and never hashed. Like
+    // String.hashCode(), a race only recomputes the same value, since each field is read once and written once.
+    private int hash;
+    private boolean isHashZero;
+
     public TableValue(Object value)
     {
         this.value = value;
     }
 
+    /**
+     * Computes the hash code that a TableValue for a raw value would have. Byte arrays are hashed by their contents,
+     * and 16-byte arrays (binary UUIDs) are read as two longs and mixed so that UUIDs sharing a prefix still spread
+     * across hash buckets.
+     *
+     * @param value - the raw value
+     * @return - the hash code
+     */
+    public static int hashOf(Object value)
+    {
+        if(value == null)
+        {
+            return 0;
+        }
+        if(value instanceof byte[])
+        {
+            byte[] bytes = (byte[]) value;
+            if(bytes.length == 16)
+            {
+                return (int) mix(mix(readLong(bytes, 0)) ^ readLong(bytes, 8));
+            }
+            return Arrays.hashCode(bytes);
+        }
+        if(value instanceof Long || value instanceof Integer)
+        {
+            return (int) mix(((Number) value).longValue());
+        }
+        return value.hashCode();
+    }
+
+    /**
+     * Determines whether two raw values are equal as TableValues.
+     *
+     * @param value1 - the first raw value
+     * @param value2 - the second raw value
+     * @return - true if the values are equal
+     */
+    public static boolean isEqual(Object value1, Object value2)
+    {
+        if (Objects.equals(value1, value2))
+        {
+            return true;
+        }
+
+        return value1 instanceof byte[] && value2 instanceof byte[] && Arrays.equals((byte[]) value1, (byte[]) value2);
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -23,31 +75,26 @@ public class TableValue
         if (o == null || getClass() != o.getClass()) return false;
         TableValue other = (TableValue) o;
 
-        if (Objects.equals(value, other.value))
-        {
-            return true;
-        }
-
-        return value instanceof byte[] && other.value instanceof byte[] && Arrays.equals((byte[]) value, (byte[]) other.value);
+        return hashCode() == other.hashCode() && isEqual(value, other.value);
     }
 
     @Override
     public int hashCode()
     {
-        if (value instanceof byte[])
+        int h = hash;
+        if(h == 0 && !isHashZero)
         {
-            byte[] keyArray = (byte[]) value;
-            int hash = keyArray.length;
-            int position = 0;
-            for (byte b : keyArray)
+            h = hashOf(value);
+            if(h == 0)
+            {
+                isHashZero = true;
+            }
+            else
             {
-                hash += b << (position % 4);
-                position++;
+                hash = h;
             }
-            return hash;
         }
-
-        return Objects.hash(value);
+        return h;
     }
 
     @Override
@@ -65,4 +112,25 @@ public class TableValue
 
         return "(" + value + ")";
     }
+
+    private static long readLong(byte[] bytes, int offset)
+    {
+        long result = 0;
+        for(int i = offset; i < offset + 8; i++)
+        {
+            result = (result << 8) | (bytes[i] & 0xff);
+        }
+        return result;
+    }
+
+    private static long mix(long value)
+    {
+        // The MurmurHash3 64-bit finalizer, so that every input bit affects the low bits used for hash buckets.
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
 }
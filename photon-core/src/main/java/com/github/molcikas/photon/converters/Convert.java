@@ -12,7 +12,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.*;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Static class used to register new converters.
@@ -21,14 +22,16 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 @SuppressWarnings("unchecked")
 public class Convert {
 
-    private static final ReentrantReadWriteLock rrwl = new ReentrantReadWriteLock();
-    private static final ReentrantReadWriteLock.ReadLock rl = rrwl.readLock();
-    private static final ReentrantReadWriteLock.WriteLock wl = rrwl.writeLock();
-    private static volatile EnumConverterFactory registeredEnumConverterFactory = new DefaultEnumConverterFactory();
-    private static Map<Class<?>, Converter<?>> registeredConverters = new HashMap<Class<?>, Converter<?>>();
+    // The registered converters are never modified after they are published. Registering a converter replaces the
+    // map with a modified copy, so lookups can read it without locking.
+    private static final Object registrationLock = new Object();
+    private static volatile Map<Class<?>, Converter<?>> registeredConverters;
+    private static final Map<Class<?>, Converter<?>> defaultConverters;
+    private static volatile EnumConverters enumConverters = new EnumConverters(new DefaultEnumConverterFactory());
+    private static volatile int version = 0;
 
-    private static void processProvider(ConvertersProvider convertersProvider) {
-        convertersProvider.fill(registeredConverters);
+    private static void processProvider(Map<Class<?>, Converter<?>> mapToFill, ConvertersProvider convertersProvider) {
+        convertersProvider.fill(mapToFill);
     }
 
     private static void fillDefaults(Map<Class<?>, Converter<?>> mapToFill) {
@@ -82,11 +85,36 @@ public class Convert {
 
 
     static {
-        fillDefaults(registeredConverters);
+        Map<Class<?>, Converter<?>> converters = new HashMap<Class<?>, Converter<?>>();
+        fillDefaults(converters);
         ServiceLoader<ConvertersProvider> loader = ServiceLoader.load(ConvertersProvider.class);
         for (ConvertersProvider provider : loader) {
-            processProvider(provider);
+            processProvider(converters, provider);
         }
+        registeredConverters = Collections.unmodifiableMap(converters);
+        defaultConverters = registeredConverters;
+    }
+
+    /**
+     * Returns a number that changes every time a converter or enum converter factory is registered. Used to know
+     * when converters that were looked up ahead of time need to be looked up again.
+     *
+     * @return - the registry version
+     */
+    public static int getVersion() {
+        return version;
+    }
+
+    /**
+     * Determines whether the converter for a class is the one photon registers by default, i.e. it has not been
+     * replaced with a custom converter.
+     *
+     * @param clazz - the class
+     * @param converter - the converter for the class
+     * @return - true if the converter is the default converter for the class
+     */
+    public static boolean isDefaultConverter(Class<?> clazz, Converter<?> converter) {
+        return converter != null && defaultConverters.get(clazz) == converter;
     }
 
     public static Converter getConverter(Class clazz) throws ConverterException {
@@ -101,38 +129,56 @@ public class Convert {
     }
 
     public static <E> Converter<E> getConverterIfExists(Class<E> clazz) {
-        Converter c;
-        rl.lock();
-        try {
-            c = registeredConverters.get(clazz);
-        } finally {
-            rl.unlock();
-        }
+        Converter c = registeredConverters.get(clazz);
         if (c != null) return c;
 
         if (clazz.isEnum()) {
-            return registeredEnumConverterFactory.newConverter((Class) clazz);
+            return enumConverters.getConverter((Class) clazz);
         }
         return null;
     }
 
     public static void registerConverter(Class clazz, Converter converter) {
-        wl.lock();
-        try {
+        synchronized (registrationLock) {
             registerConverter0(clazz, converter);
-        } finally {
-            wl.unlock();
         }
     }
 
 
     private static void registerConverter0(Class clazz, Converter converter) {
-        registeredConverters.put(clazz, converter);
+        Map<Class<?>, Converter<?>> converters = new HashMap<Class<?>, Converter<?>>(registeredConverters);
+        converters.put(clazz, converter);
+        registeredConverters = Collections.unmodifiableMap(converters);
+        version++;
     }
 
     @SuppressWarnings("UnusedDeclaration")
     public static void registerEnumConverter(EnumConverterFactory enumConverterFactory) {
         if (enumConverterFactory == null) throw new IllegalArgumentException();
-        registeredEnumConverterFactory = enumConverterFactory;
+        synchronized (registrationLock) {
+            enumConverters = new EnumConverters(enumConverterFactory);
+            version++;
+        }
+    }
+
+    /**
+     * The enum converter factory and the converters it has created, cached per enum class.
+     */
+    private static class EnumConverters {
+        private final EnumConverterFactory enumConverterFactory;
+        private final ConcurrentMap<Class<?>, Converter<?>> converters = new ConcurrentHashMap<Class<?>, Converter<?>>();
+
+        private EnumConverters(EnumConverterFactory enumConverterFactory) {
+            this.enumConverterFactory = enumConverterFactory;
+        }
+
+        private Converter getConverter(Class<? extends Enum> enumClass) {
+            Converter c = converters.get(enumClass);
+            if (c == null) {
+                c = enumConverterFactory.newConverter(enumClass);
+                converters.putIfAbsent(enumClass, c);
+            }
+            return c;
+        }
     }
 }
@@ -6,6 +6,8 @@ package com.github.molcikas.photon.converters;
  */
 public class DefaultEnumConverterFactory implements EnumConverterFactory {
     public <E extends Enum> Converter<E> newConverter(final Class<E> enumType) {
+        // getEnumConstants() clones the constants array on every call, so get it once per converter.
+        final E[] enumConstants = enumType.getEnumConstants();
         return new Converter<E>() {
             @SuppressWarnings("unchecked")
             public E convert(Object val) throws ConverterException {
@@ -16,7 +18,7 @@ public class DefaultEnumConverterFactory implements EnumConverterFactory {
                     if (val instanceof String){
                         return (E)Enum.valueOf(enumType, val.toString());
                     } else if (val instanceof Number){
-                        return enumType.getEnumConstants()[((Number)val).intValue()];
+                        return enumConstants[((Number)val).intValue()];
                     }
                 } catch (Throwable t) {
                     throw new ConverterException("Error converting value '" + val.toString() + "' to " + enumType.getName(), t);
@@ -0,0 +1,58 @@
+package com.github.molcikas.photon.converters;
+
+/**
+ * The registered converter for a class, looked up once and then reused. The converter is looked up again only if a
+ * converter is registered after it was first looked up.
+ */
+public class ResolvedConverter<T> {
+    private final Class<T> clazz;
+    private volatile Resolution<T> resolution;
+
+    public ResolvedConverter(Class<T> clazz) {
+        this.clazz = clazz;
+    }
+
+    public Class<T> getConvertedClass() {
+        return clazz;
+    }
+
+    /**
+     * Gets the converter for the class.
+     *
+     * @return - the converter, or null if no converter is registered for the class
+     */
+    public Converter<T> get() {
+        return resolve().converter;
+    }
+
+    /**
+     * Determines whether the converter for the class is the one photon registers by default.
+     *
+     * @return - true if the converter is the default converter
+     */
+    public boolean isDefault() {
+        return resolve().isDefault;
+    }
+
+    private Resolution<T> resolve() {
+        Resolution<T> current = resolution;
+        int version = Convert.getVersion();
+        if (current == null || current.version != version) {
+            current = new Resolution<T>(version, clazz, Convert.getConverterIfExists(clazz));
+            resolution = current;
+        }
+        return current;
+    }
+
+    private static class Resolution<T> {
+        private final int version;
+        private final Converter<T> converter;
+        private final boolean isDefault;
+
+        private Resolution(int version, Class<T> clazz, Converter<T> converter) {
+            this.version = version;
+            this.converter = converter;
+            this.isDefault = Convert.isDefaultConverter(clazz, converter);
+        }
+    }
+}
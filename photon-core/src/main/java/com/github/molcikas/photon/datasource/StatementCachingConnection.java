@@ -0,0 +1,509 @@
+package com.github.molcikas.photon.datasource;
+
+import edu.umd.cs.findbugs.annotations.SuppressWarnings;
+
+import java.sql.*;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * A JDBC database connection that keeps a bounded LRU cache of prepared statements keyed by SQL text. Statements
+ * handed back with releaseStatement() are cleared and reused by later calls to prepareStatement() with the same SQL.
+ * All cached statements are closed when the connection is closed.
+ */
+@SuppressWarnings("SQL_INJECTION_JDBC")
+public class StatementCachingConnection implements Connection
+{
+    private final Connection connection;
+    private final int maxCachedStatements;
+    private final LinkedHashMap<String, PreparedStatement> idleStatements;
+    private final Map<PreparedStatement, String> checkedOutStatements;
+
+    private long cacheHits = 0;
+    private long cacheMisses = 0;
+
+    public StatementCachingConnection(Connection connection, int maxCachedStatements)
+    {
+        this.connection = connection;
+        this.maxCachedStatements = maxCachedStatements;
+        this.idleStatements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest)
+            {
+                if(size() > StatementCachingConnection.this.maxCachedStatements)
+                {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.checkedOutStatements = new IdentityHashMap<>();
+    }
+
+    /**
+     * Returns the number of times a prepared statement was reused from the cache.
+     *
+     * @return - the number of cache hits
+     */
+    public long getCacheHits()
+    {
+        return cacheHits;
+    }
+
+    /**
+     * Returns the number of times a prepared statement was not in the cache and had to be prepared.
+     *
+     * @return - the number of cache misses
+     */
+    public long getCacheMisses()
+    {
+        return cacheMisses;
+    }
+
+    /**
+     * Returns a statement obtained from this connection to the cache. The statement's parameters and batch are
+     * cleared. Statements that did not come from the cache are closed.
+     *
+     * @param preparedStatement - the statement to release
+     */
+    public void releaseStatement(PreparedStatement preparedStatement)
+    {
+        String key = checkedOutStatements.remove(preparedStatement);
+        if(key == null)
+        {
+            closeQuietly(preparedStatement);
+            return;
+        }
+
+        try
+        {
+            if(preparedStatement.isClosed() || connection.isClosed())
+            {
+                return;
+            }
+            preparedStatement.clearParameters();
+            preparedStatement.clearBatch();
+        }
+        catch(SQLException ex)
+        {
+            closeQuietly(preparedStatement);
+            return;
+        }
+
+        PreparedStatement existingStatement = idleStatements.put(key, preparedStatement);
+        if(existingStatement != null)
+        {
+            closeQuietly(existingStatement);
+        }
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException
+    {
+        return connection.createStatement();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException
+    {
+        PreparedStatement preparedStatement = checkoutStatement(sql);
+        if(preparedStatement == null)
+        {
+            preparedStatement = connection.prepareStatement(sql);
+            trackCheckedOutStatement(preparedStatement, sql);
+        }
+        return preparedStatement;
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException
+    {
+        return connection.prepareCall(sql);
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException
+    {
+        return connection.nativeSQL(sql);
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException
+    {
+        connection.setAutoCommit(autoCommit);
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException
+    {
+        return connection.getAutoCommit();
+    }
+
+    @Override
+    public void commit() throws SQLException
+    {
+        connection.commit();
+    }
+
+    @Override
+    public void rollback() throws SQLException
+    {
+        connection.rollback();
+    }
+
+    @Override
+    public void close() throws SQLException
+    {
+        for(PreparedStatement preparedStatement : idleStatements.values())
+        {
+            closeQuietly(preparedStatement);
+        }
+        idleStatements.clear();
+        checkedOutStatements.clear();
+        connection.close();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException
+    {
+        return connection.isClosed();
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException
+    {
+        return connection.getMetaData();
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException
+    {
+        connection.setReadOnly(readOnly);
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException
+    {
+        return connection.isReadOnly();
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException
+    {
+        connection.setCatalog(catalog);
+    }
+
+    @Override
+    public String getCatalog() throws SQLException
+    {
+        return connection.getCatalog();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException
+    {
+        connection.setTransactionIsolation(level);
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException
+    {
+        return connection.getTransactionIsolation();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException
+    {
+        return connection.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException
+    {
+        connection.clearWarnings();
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException
+    {
+        return connection.createStatement(resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql,
+                                              int resultSetType,
+                                              int resultSetConcurrency) throws SQLException
+    {
+        return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException
+    {
+        return connection.prepareCall(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException
+    {
+        return connection.getTypeMap();
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException
+    {
+        connection.setTypeMap(map);
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException
+    {
+        connection.setHoldability(holdability);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException
+    {
+        return connection.getHoldability();
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException
+    {
+        return connection.setSavepoint();
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException
+    {
+        return connection.setSavepoint(name);
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException
+    {
+        connection.rollback(savepoint);
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException
+    {
+        connection.releaseSavepoint(savepoint);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType,
+                                     int resultSetConcurrency,
+                                     int resultSetHoldability) throws SQLException
+    {
+        return connection.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql,
+                                              int resultSetType,
+                                              int resultSetConcurrency,
+                                              int resultSetHoldability) throws SQLException
+    {
+        return connection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql,
+                                         int resultSetType,
+                                         int resultSetConcurrency,
+                                         int resultSetHoldability) throws SQLException
+    {
+        return connection.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException
+    {
+        String key = sql + "\n-- autoGeneratedKeys=" + autoGeneratedKeys;
+        PreparedStatement preparedStatement = checkoutStatement(key);
+        if(preparedStatement == null)
+        {
+            preparedStatement = connection.prepareStatement(sql, autoGeneratedKeys);
+            trackCheckedOutStatement(preparedStatement, key);
+        }
+        return preparedStatement;
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException
+    {
+        String key = sql + "\n-- columnIndexes=" + Arrays.toString(columnIndexes);
+        PreparedStatement preparedStatement = checkoutStatement(key);
+        if(preparedStatement == null)
+        {
+            preparedStatement = connection.prepareStatement(sql, columnIndexes);
+            trackCheckedOutStatement(preparedStatement, key);
+        }
+        return preparedStatement;
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException
+    {
+        return connection.prepareStatement(sql, columnNames);
+    }
+
+    @Override
+    public Clob createClob() throws SQLException
+    {
+        return connection.createClob();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException
+    {
+        return connection.createBlob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException
+    {
+        return connection.createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException
+    {
+        return connection.createSQLXML();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException
+    {
+        return connection.isValid(timeout);
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException
+    {
+        connection.setClientInfo(name, value);
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException
+    {
+        connection.setClientInfo(properties);
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException
+    {
+        return connection.getClientInfo(name);
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException
+    {
+        return connection.getClientInfo();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException
+    {
+        return connection.createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException
+    {
+        return connection.createStruct(typeName, attributes);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException
+    {
+        connection.setSchema(schema);
+    }
+
+    @Override
+    public String getSchema() throws SQLException
+    {
+        return connection.getSchema();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException
+    {
+        connection.abort(executor);
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException
+    {
+        connection.setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException
+    {
+        return connection.getNetworkTimeout();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException
+    {
+        return connection.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException
+    {
+        return connection.isWrapperFor(iface);
+    }
+
+    private PreparedStatement checkoutStatement(String key) throws SQLException
+    {
+        if(maxCachedStatements <= 0)
+        {
+            cacheMisses++;
+            return null;
+        }
+
+        // Statements are removed from the cache while they are in use so that two open statements never share the
+        // same underlying JDBC statement.
+        PreparedStatement preparedStatement = idleStatements.remove(key);
+        if(preparedStatement == null || preparedStatement.isClosed())
+        {
+            cacheMisses++;
+            return null;
+        }
+
+        cacheHits++;
+        checkedOutStatements.put(preparedStatement, key);
+        return preparedStatement;
+    }
+
+    private void trackCheckedOutStatement(PreparedStatement preparedStatement, String key)
+    {
+        if(maxCachedStatements > 0)
+        {
+            checkedOutStatements.put(preparedStatement, key);
+        }
+    }
+
+    private static void closeQuietly(Statement statement)
+    {
+        try
+        {
+            statement.close();
+        }
+        catch(Exception ex)
+        {
+            // Suppress errors related to closing.
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.molcikas.photon.options;
+
+public enum IdTableMode
+{
+    /**
+     * Ids are always bound as parameters of the aggregate queries.
+     */
+    Disabled,
+
+    /**
+     * Ids are loaded into a table created with CREATE LOCAL TEMPORARY TABLE ... TRANSACTIONAL AS SELECT. Use this for
+     * H2.
+     */
+    LocalTemporary,
+
+    /**
+     * Ids are loaded into a table created with CREATE TEMPORARY TABLE IF NOT EXISTS ... AS SELECT. Use this for MySQL.
+     */
+    Temporary,
+
+    /**
+     * Ids are loaded into a #temp table created with SELECT ... INTO. Use this for SQL Server.
+     */
+    SelectInto
+}
@@ -1,6 +1,7 @@
 package com.github.molcikas.photon.options;
 
 import com.github.molcikas.photon.blueprints.table.ColumnDataType;
+import com.github.molcikas.photon.exceptions.PhotonException;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -11,12 +12,32 @@ import lombok.Getter;
 public class PhotonOptions
 {
     public static final ColumnDataType DEFAULT_UUID_DATA_TYPE = ColumnDataType.BINARY;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int DEFAULT_MAX_BIND_PARAMETERS = Integer.MAX_VALUE;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 50;
+    public static final int DEFAULT_MAX_IN_LIST_SIZE = Integer.MAX_VALUE;
+    public static final int DEFAULT_STREAMING_FETCH_SIZE = 1000;
+    public static final int DEFAULT_BLUEPRINT_CACHE_SIZE = 200;
+    public static final int DEFAULT_ID_TABLE_THRESHOLD = 10000;
 
     private final String delimitIdentifierStart;
     private final String delimitIdentifierEnd;
     private final DefaultTableName defaultTableName;
     private final boolean enableJdbcGetGeneratedKeys;
     private final ColumnDataType defaultUuidDataType;
+    private final int batchSize;
+    private final boolean enableBatchGeneratedKeys;
+    private final boolean enableMultiRowInserts;
+    private final int maxBindParameters;
+    private final int statementCacheSize;
+    private final int maxInListSize;
+    private final boolean enableArrayParameters;
+    private final int streamingFetchSize;
+    private final boolean disableAutoCommitWhenStreaming;
+    private final int blueprintCacheSize;
+    private final boolean enableMultipleResultSets;
+    private final IdTableMode idTableMode;
+    private final int idTableThreshold;
 
     /**
      * Constructor. Defaults the UUID data type to PhotonOptions.DEFAULT_UUID_DATA_TYPE.
@@ -28,6 +49,46 @@ public class PhotonOptions
      *                                   statements. Set this to false for Oracle databases.
      * @param defaultUuidDataType - Default java.sql.Types value for UUID fields. Set this to null for Postgres
      *                            databases.
+     * @param batchSize - The maximum number of statements sent to the database in a single JDBC batch when saving
+     *                  entities. Defaults to PhotonOptions.DEFAULT_BATCH_SIZE. Set this to 1 to disable batching.
+     * @param enableBatchGeneratedKeys - Whether the JDBC driver returns generated keys for every row in a batch
+     *                                 insert. If false, entities with auto increment keys are inserted one at a
+     *                                 time. Set this to false for SQL Server and Oracle databases.
+     * @param enableMultiRowInserts - Whether entities whose primary keys are not generated by the database are
+     *                              inserted using multi-row INSERT ... VALUES statements instead of JDBC batches.
+     *                              Defaults to false.
+     * @param maxBindParameters - The maximum number of bind parameters the database allows in a single statement.
+     *                          Multi-row inserts are split into multiple statements to stay under this limit.
+     *                          Defaults to PhotonOptions.DEFAULT_MAX_BIND_PARAMETERS, which is no limit.
+     * @param statementCacheSize - The maximum number of prepared statements each transaction keeps open for reuse.
+     *                           Defaults to PhotonOptions.DEFAULT_STATEMENT_CACHE_SIZE. Set this to 0 to disable
+     *                           statement caching.
+     * @param maxInListSize - The maximum number of values photon puts in a single IN (...) list. Queries with more
+     *                      values than this or than maxBindParameters are executed once for each chunk of values, and
+     *                      fetchByIds() then sorts the aggregates within each chunk rather than across the whole
+     *                      result. Defaults to PhotonOptions.DEFAULT_MAX_IN_LIST_SIZE, which is no limit.
+     * @param enableArrayParameters - Whether lists of ids are bound as a single JDBC array using = ANY(?) instead of
+     *                              being expanded into an IN (...) list. Only set this to true for databases that
+     *                              support array parameters, such as Postgres. Defaults to false.
+     * @param streamingFetchSize - The JDBC fetch size for queries that stream their results. Defaults to
+     *                           PhotonOptions.DEFAULT_STREAMING_FETCH_SIZE. Set this to Integer.MIN_VALUE for MySQL
+     *                           databases, which otherwise read the entire result into memory.
+     * @param disableAutoCommitWhenStreaming - Whether auto commit is turned off while a query streams its results.
+     *                                       Set this to true for Postgres databases, which ignore the fetch size in
+     *                                       auto commit mode. Defaults to false.
+     * @param blueprintCacheSize - The maximum number of entity blueprints photon keeps for mapping the results of
+     *                           ad-hoc queries. Defaults to PhotonOptions.DEFAULT_BLUEPRINT_CACHE_SIZE. Set this to 0
+     *                           to disable blueprint caching.
+     * @param enableMultipleResultSets - Whether the child entity queries of an aggregate are sent to the database as a
+     *                                 single multi-statement query and read with getMoreResults(). Only set this to
+     *                                 true for databases that support multiple statements in a prepared statement,
+     *                                 such as SQL Server, or MySQL with allowMultiQueries=true in the connection URL.
+     *                                 Defaults to false.
+     * @param idTableMode - How aggregates are fetched by a large list of ids. If not Disabled, fetchByIds() loads more
+     *                    than idTableThreshold ids into a temporary table with a JDBC batch, and the aggregate queries
+     *                    select the ids from that table instead of binding them. Defaults to Disabled.
+     * @param idTableThreshold - The number of ids above which fetchByIds() uses a temporary table if idTableMode is
+     *                         not Disabled. Defaults to PhotonOptions.DEFAULT_ID_TABLE_THRESHOLD.
      */
     @Builder
     public PhotonOptions(
@@ -35,13 +96,69 @@ public class PhotonOptions
         String delimitIdentifierEnd,
         DefaultTableName defaultTableName,
         Boolean enableJdbcGetGeneratedKeys,
-        ColumnDataType defaultUuidDataType)
+        ColumnDataType defaultUuidDataType,
+        Integer batchSize,
+        Boolean enableBatchGeneratedKeys,
+        Boolean enableMultiRowInserts,
+        Integer maxBindParameters,
+        Integer statementCacheSize,
+        Integer maxInListSize,
+        Boolean enableArrayParameters,
+        Integer streamingFetchSize,
+        Boolean disableAutoCommitWhenStreaming,
+        Integer blueprintCacheSize,
+        Boolean enableMultipleResultSets,
+        IdTableMode idTableMode,
+        Integer idTableThreshold)
     {
+        if(batchSize != null && batchSize < 1)
+        {
+            throw new PhotonException("The batch size must be at least 1.");
+        }
+        if(maxBindParameters != null && maxBindParameters < 1)
+        {
+            throw new PhotonException("The max bind parameters must be at least 1.");
+        }
+        if(statementCacheSize != null && statementCacheSize < 0)
+        {
+            throw new PhotonException("The statement cache size cannot be negative.");
+        }
+        if(maxInListSize != null && maxInListSize < 1)
+        {
+            throw new PhotonException("The max IN list size must be at least 1.");
+        }
+        if(streamingFetchSize != null && streamingFetchSize < 1 && streamingFetchSize != Integer.MIN_VALUE)
+        {
+            throw new PhotonException("The streaming fetch size must be at least 1 or Integer.MIN_VALUE.");
+        }
+        if(blueprintCacheSize != null && blueprintCacheSize < 0)
+        {
+            throw new PhotonException("The blueprint cache size cannot be negative.");
+        }
+        if(idTableThreshold != null && idTableThreshold < 1)
+        {
+            throw new PhotonException("The id table threshold must be at least 1.");
+        }
+
         this.delimitIdentifierStart = delimitIdentifierStart != null ? delimitIdentifierStart : "";
         this.delimitIdentifierEnd = delimitIdentifierEnd != null ? delimitIdentifierEnd : "";
         this.defaultTableName = defaultTableName != null ? defaultTableName : DefaultTableName.ClassName;
         this.enableJdbcGetGeneratedKeys = enableJdbcGetGeneratedKeys != null ? enableJdbcGetGeneratedKeys : true;
         this.defaultUuidDataType = defaultUuidDataType;
+        this.batchSize = batchSize != null ? batchSize : DEFAULT_BATCH_SIZE;
+        this.enableBatchGeneratedKeys = enableBatchGeneratedKeys != null ? enableBatchGeneratedKeys : true;
+        this.enableMultiRowInserts = enableMultiRowInserts != null ? enableMultiRowInserts : false;
+        this.maxBindParameters = maxBindParameters != null ? maxBindParameters : DEFAULT_MAX_BIND_PARAMETERS;
+        this.statementCacheSize = statementCacheSize != null ? statementCacheSize : DEFAULT_STATEMENT_CACHE_SIZE;
+        this.maxInListSize = maxInListSize != null ? maxInListSize : DEFAULT_MAX_IN_LIST_SIZE;
+        this.enableArrayParameters = enableArrayParameters != null ? enableArrayParameters : false;
+        this.streamingFetchSize = streamingFetchSize != null ? streamingFetchSize : DEFAULT_STREAMING_FETCH_SIZE;
+        this.disableAutoCommitWhenStreaming =
+            disableAutoCommitWhenStreaming != null ? disableAutoCommitWhenStreaming : false;
+        this.blueprintCacheSize = blueprintCacheSize != null ? blueprintCacheSize : DEFAULT_BLUEPRINT_CACHE_SIZE;
+        this.enableMultipleResultSets = enableMultipleResultSets != null ? enableMultipleResultSets : false;
+        this.idTableMode = idTableMode != null ? idTableMode : IdTableMode.Disabled;
+        this.idTableThreshold = idTableThreshold != null ? idTableThreshold : DEFAULT_ID_TABLE_THRESHOLD;
     }
 
     /**
@@ -51,7 +168,7 @@ public class PhotonOptions
      */
     public static PhotonOptions defaultOptions()
     {
-        return new PhotonOptions(null, null, null, null, DEFAULT_UUID_DATA_TYPE);
+        return new PhotonOptions(null, null, null, null, DEFAULT_UUID_DATA_TYPE, null, null, null, null, null, null, null, null, null, null, null, null, null);
     }
 
     /**
@@ -65,6 +182,9 @@ public class PhotonOptions
             .builder()
             .delimitIdentifierStart("`")
             .delimitIdentifierEnd("`")
+            .enableMultiRowInserts(true)
+            .maxBindParameters(65535)
+            .streamingFetchSize(Integer.MIN_VALUE)
             .defaultUuidDataType(ColumnDataType.BINARY);
     }
 
@@ -78,6 +198,10 @@ public class PhotonOptions
         return PhotonOptions
             .builder()
             .enableJdbcGetGeneratedKeys(false)
+            .enableBatchGeneratedKeys(false)
+            .batchSize(1)
+            .maxBindParameters(65535)
+            .maxInListSize(1000)
             .defaultUuidDataType(ColumnDataType.BINARY);
     }
 
@@ -92,6 +216,10 @@ public class PhotonOptions
             .builder()
             .delimitIdentifierStart("\"")
             .delimitIdentifierEnd("\"")
+            .enableMultiRowInserts(true)
+            .maxBindParameters(32767)
+            .enableArrayParameters(true)
+            .disableAutoCommitWhenStreaming(true)
             .defaultUuidDataType(null);
     }
 
@@ -106,6 +234,9 @@ public class PhotonOptions
             .builder()
             .delimitIdentifierStart("[")
             .delimitIdentifierEnd("]")
+            .enableBatchGeneratedKeys(false)
+            .enableMultiRowInserts(true)
+            .maxBindParameters(2100)
             .defaultUuidDataType(ColumnDataType.BINARY);
     }
 }
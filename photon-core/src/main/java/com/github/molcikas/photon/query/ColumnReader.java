@@ -0,0 +1,88 @@
+package com.github.molcikas.photon.query;
+
+import com.github.molcikas.photon.blueprints.table.ColumnDataType;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Reads a column value from the current row of a result set.
+ */
+@FunctionalInterface
+public interface ColumnReader
+{
+    ColumnReader OBJECT = ResultSet::getObject;
+
+    ColumnReader BOOLEAN = (resultSet, columnIndex) ->
+    {
+        boolean value = resultSet.getBoolean(columnIndex);
+        return resultSet.wasNull() ? null : value;
+    };
+
+    ColumnReader INTEGER = (resultSet, columnIndex) ->
+    {
+        int value = resultSet.getInt(columnIndex);
+        return resultSet.wasNull() ? null : value;
+    };
+
+    ColumnReader LONG = (resultSet, columnIndex) ->
+    {
+        long value = resultSet.getLong(columnIndex);
+        return resultSet.wasNull() ? null : value;
+    };
+
+    ColumnReader DOUBLE = (resultSet, columnIndex) ->
+    {
+        double value = resultSet.getDouble(columnIndex);
+        return resultSet.wasNull() ? null : value;
+    };
+
+    ColumnReader STRING = ResultSet::getString;
+
+    ColumnReader BYTES = ResultSet::getBytes;
+
+    Object read(ResultSet resultSet, int columnIndex) throws SQLException;
+
+    /**
+     * Chooses the reader for a column that is mapped to a field. A typed getter is used only when both the column
+     * data type and the field class are known and the getter returns the same value that the field's converter would
+     * produce from getObject(). Otherwise the value is read with getObject().
+     *
+     * @param columnDataType - the column data type, or null if not known
+     * @param fieldClass - the class of the mapped field, or null if the column is not mapped to a field
+     * @return - the column reader
+     */
+    static ColumnReader forField(ColumnDataType columnDataType, Class fieldClass)
+    {
+        if(columnDataType == null || fieldClass == null)
+        {
+            return OBJECT;
+        }
+
+        switch (columnDataType)
+        {
+            case BIT:
+            case BOOLEAN:
+                return fieldClass == Boolean.class || fieldClass == boolean.class ? BOOLEAN : OBJECT;
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+                return fieldClass == Integer.class || fieldClass == int.class ? INTEGER : OBJECT;
+            case BIGINT:
+                return fieldClass == Long.class || fieldClass == long.class ? LONG : OBJECT;
+            case DOUBLE:
+                return fieldClass == Double.class || fieldClass == double.class ? DOUBLE : OBJECT;
+            case CHAR:
+            case VARCHAR:
+            case LONGVARCHAR:
+                return fieldClass == String.class ? STRING : OBJECT;
+            case BINARY:
+            case VARBINARY:
+            case LONGVARBINARY:
+                return fieldClass == byte[].class || fieldClass == UUID.class ? BYTES : OBJECT;
+            default:
+                return OBJECT;
+        }
+    }
+}
@@ -13,14 +13,15 @@ public class GetParameterValuesResult
     private boolean skipped;
     private boolean changed;
     private Map<String, ParameterValue> values;
+    private Object[] snapshot;
 
     public static GetParameterValuesResult skipped()
     {
-        return new GetParameterValuesResult(true, false, Collections.emptyMap());
+        return new GetParameterValuesResult(true, false, Collections.emptyMap(), null);
     }
 
     public static GetParameterValuesResult unchanged()
     {
-        return new GetParameterValuesResult(false, false, Collections.emptyMap());
+        return new GetParameterValuesResult(false, false, Collections.emptyMap(), null);
     }
 }
\ No newline at end of file
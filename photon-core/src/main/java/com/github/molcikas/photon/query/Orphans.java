@@ -5,6 +5,7 @@ import com.github.molcikas.photon.blueprints.entity.EntityBlueprint;
 import com.github.molcikas.photon.blueprints.entity.FieldBlueprint;
 import com.github.molcikas.photon.blueprints.table.TableBlueprint;
 import com.github.molcikas.photon.blueprints.table.TableValue;
+import com.github.molcikas.photon.converters.Converter;
 import com.github.molcikas.photon.options.PhotonOptions;
 
 import java.sql.Connection;
@@ -15,30 +16,44 @@ public class Orphans
 {
     public static void findAndDelete(
         EntityBlueprint entityBlueprint,
-        List<PopulatedEntity> populatedEntities,
-        PopulatedEntity parentPopulatedEntity,
+        Map<PopulatedEntity, List<PopulatedEntity>> populatedEntitiesByParent,
         FieldBlueprint parentFieldBlueprint,
         PhotonEntityState photonEntityState,
         Connection connection,
         PhotonOptions photonOptions)
     {
-        if(parentFieldBlueprint == null)
+        if(parentFieldBlueprint == null || populatedEntitiesByParent.isEmpty())
         {
             return;
         }
 
         TableBlueprint tableBlueprint = entityBlueprint.getTableBlueprint();
+        TableBlueprint parentTableBlueprint = tableBlueprint.getParentTableBlueprint();
 
-        List<TableValue> childIds = populatedEntities
-            .stream()
-            .map(PopulatedEntity::getPrimaryKeyValue)
-            .filter(Objects::nonNull) // Auto increment entities that have not been inserted yet will have null primary key values.
-            .map(TableValue::new)
-            .collect(Collectors.toList());
+        Map<PopulatedEntity, List<Object>> childIdsByChangedParent = new LinkedHashMap<>();
 
-        Set<TableValue> trackedKeys =
-            photonEntityState.getTrackedChildrenKeys(parentFieldBlueprint, parentPopulatedEntity.getPrimaryKey());
-        if(trackedKeys != null && new HashSet<>(childIds).equals(trackedKeys))
+        for(Map.Entry<PopulatedEntity, List<PopulatedEntity>> entry : populatedEntitiesByParent.entrySet())
+        {
+            List<TableValue> parentChildIds = entry.getValue()
+                .stream()
+                .map(PopulatedEntity::getPrimaryKeyValue)
+                .filter(Objects::nonNull) // Auto increment entities that have not been inserted yet will have null primary key values.
+                .map(TableValue::new)
+                .collect(Collectors.toList());
+
+            Set<TableValue> trackedKeys =
+                photonEntityState.getTrackedChildrenKeys(parentFieldBlueprint, entry.getKey().getPrimaryKey());
+            if(trackedKeys != null && new HashSet<>(parentChildIds).equals(trackedKeys))
+            {
+                continue;
+            }
+
+            childIdsByChangedParent.put(
+                entry.getKey(),
+                parentChildIds.stream().map(TableValue::getValue).collect(Collectors.toList()));
+        }
+
+        if(childIdsByChangedParent.isEmpty())
         {
             return;
         }
@@ -46,6 +61,7 @@ public class Orphans
         if(tableBlueprint.isPrimaryKeyMappedToField())
         {
             String primaryKeyColumnName = tableBlueprint.getPrimaryKeyColumnName();
+            String foreignKeyColumnName = tableBlueprint.getForeignKeyToParentColumn().getColumnName();
             String selectOrphansSql = tableBlueprint.getSelectOrphansSql();
             if(selectOrphansSql == null)
             {
@@ -54,52 +70,111 @@ public class Orphans
                 return;
             }
 
-            List<Object> orphanIds;
+            List<PhotonQueryResultRow> rows = new ArrayList<>();
 
-            try(PhotonPreparedStatement statement = new PhotonPreparedStatement(selectOrphansSql, false, connection, photonOptions))
+            for(List<PopulatedEntity> parentGroup : groupParentsForOrphanQueries(childIdsByChangedParent, photonOptions))
             {
-                statement.setNextParameter(
-                    parentPopulatedEntity.getPrimaryKeyValue(),
-                    tableBlueprint.getParentTableBlueprint().getPrimaryKeyColumn().getColumnDataType(),
-                    tableBlueprint.getParentTableBlueprint().getPrimaryKeyColumnSerializer());
-                statement.setNextArrayParameter(
-                    childIds.stream().map(TableValue::getValue).collect(Collectors.toList()),
-                    tableBlueprint.getPrimaryKeyColumn().getColumnDataType(),
-                    tableBlueprint.getPrimaryKeyColumnSerializer());
-                List<PhotonQueryResultRow> rows =
-                    statement.executeQuery(Collections.singletonList(primaryKeyColumnName), Collections.singletonList(primaryKeyColumnName.toLowerCase()));
-                orphanIds =
-                    rows.stream().map(r -> r.getValue(primaryKeyColumnName)).collect(Collectors.toList());
+                List<Object> parentIds = new ArrayList<>(parentGroup.size());
+                List<Object> childIds = new ArrayList<>();
+                for(PopulatedEntity parentPopulatedEntity : parentGroup)
+                {
+                    parentIds.add(parentPopulatedEntity.getPrimaryKeyValue());
+                    childIds.addAll(childIdsByChangedParent.get(parentPopulatedEntity));
+                }
+
+                boolean isExcludingChildIds = canExcludeInSql(parentIds.size(), childIds.size(), photonOptions);
+
+                try(PhotonPreparedStatement statement = new PhotonPreparedStatement(selectOrphansSql, false, connection, photonOptions))
+                {
+                    statement.setNextArrayParameter(
+                        parentIds,
+                        parentTableBlueprint.getPrimaryKeyColumn().getColumnDataType(),
+                        parentTableBlueprint.getPrimaryKeyColumnSerializer());
+                    statement.setNextArrayParameter(
+                        isExcludingChildIds ? childIds : Collections.emptyList(),
+                        tableBlueprint.getPrimaryKeyColumn().getColumnDataType(),
+                        tableBlueprint.getPrimaryKeyColumnSerializer());
+                    List<PhotonQueryResultRow> groupRows = statement.executeQuery(
+                        Arrays.asList(primaryKeyColumnName, foreignKeyColumnName),
+                        Arrays.asList(primaryKeyColumnName.toLowerCase(), foreignKeyColumnName.toLowerCase()));
+
+                    if(!isExcludingChildIds)
+                    {
+                        // A single parent has more children than fit in one statement, so its children that are
+                        // still in the aggregate are filtered out here instead.
+                        Set<TableValue> childKeys = childIds
+                            .stream()
+                            .map(c -> toDatabaseKey(c, tableBlueprint, tableBlueprint.getPrimaryKeyColumnSerializer()))
+                            .collect(Collectors.toSet());
+                        groupRows = groupRows
+                            .stream()
+                            .filter(r -> !childKeys.contains(toDatabaseKey(r.getValue(primaryKeyColumnName), tableBlueprint, null)))
+                            .collect(Collectors.toList());
+                    }
+
+                    rows.addAll(groupRows);
+                }
             }
 
-            if(orphanIds.size() == 0)
+            if(rows.size() == 0)
             {
                 return;
             }
 
+            List<Object> orphanIds = rows.stream().map(r -> r.getValue(primaryKeyColumnName)).collect(Collectors.toList());
+
             deleteOrphansAndTheirChildrenRecursive(orphanIds, entityBlueprint, Collections.emptyList(), connection, photonOptions);
 
-            photonEntityState.untrackChildrenRecursive(
-                parentFieldBlueprint,
-                parentPopulatedEntity.getPrimaryKey(),
-                entityBlueprint,
-                tableBlueprint,
-                orphanIds.stream().map(TableValue::new).collect(Collectors.toList()));
+            // The foreign key values come back in their database form, so match them against the parent keys
+            // converted the same way.
+            Map<TableValue, List<TableValue>> orphanIdsByParentKey = new HashMap<>();
+            for(PhotonQueryResultRow row : rows)
+            {
+                orphanIdsByParentKey
+                    .computeIfAbsent(
+                        toDatabaseKey(row.getValue(foreignKeyColumnName), parentTableBlueprint, null),
+                        k -> new ArrayList<>())
+                    .add(new TableValue(row.getValue(primaryKeyColumnName)));
+            }
+
+            for(PopulatedEntity parentPopulatedEntity : childIdsByChangedParent.keySet())
+            {
+                List<TableValue> parentOrphanIds = orphanIdsByParentKey.get(toDatabaseKey(
+                    parentPopulatedEntity.getPrimaryKeyValue(),
+                    parentTableBlueprint,
+                    parentTableBlueprint.getPrimaryKeyColumnSerializer()));
+                if(parentOrphanIds == null)
+                {
+                    continue;
+                }
+
+                photonEntityState.untrackChildrenRecursive(
+                    parentFieldBlueprint,
+                    parentPopulatedEntity.getPrimaryKey(),
+                    entityBlueprint,
+                    tableBlueprint,
+                    parentOrphanIds);
+            }
         }
         else
         {
+            List<Object> parentIds = childIdsByChangedParent
+                .keySet()
+                .stream()
+                .map(PopulatedEntity::getPrimaryKeyValue)
+                .collect(Collectors.toList());
+
             // If a child does not have a primary key, then it has to be deleted and re-inserted on every save.
             try(PhotonPreparedStatement statement = new PhotonPreparedStatement(
-                tableBlueprint.getDeleteChildrenExceptSql(),
+                tableBlueprint.getDeleteChildrenOfParentsSql(),
                 false,
                 connection,
                 photonOptions))
             {
-                statement.setNextParameter(
-                    parentPopulatedEntity.getPrimaryKeyValue(),
-                    tableBlueprint.getParentTableBlueprint().getPrimaryKeyColumn().getColumnDataType(),
-                    tableBlueprint.getParentTableBlueprint().getPrimaryKeyColumnSerializer());
-                statement.setNextParameter(Collections.emptyList(), null, null);
+                statement.setNextArrayParameter(
+                    parentIds,
+                    parentTableBlueprint.getPrimaryKeyColumn().getColumnDataType(),
+                    parentTableBlueprint.getPrimaryKeyColumnSerializer());
                 statement.executeUpdate();
             }
         }
@@ -111,39 +186,94 @@ public class Orphans
         Connection connection,
         PhotonOptions photonOptions)
     {
-        for(PopulatedEntity populatedEntity : populatedEntities)
+        for (TableBlueprint tableBlueprint : entityBlueprint.getJoinedTableBlueprints())
         {
-            for (TableBlueprint tableBlueprint : entityBlueprint.getJoinedTableBlueprints())
+            // Entities whose class does not use this joined table should not have a row in it. If they do (e.g. the
+            // entity changed to a different subclass), the row and its children are orphans.
+            List<Object> ids = populatedEntities
+                .stream()
+                .filter(p -> !tableBlueprint.isApplicableForEntityClass(p.getEntityInstance().getClass()))
+                .map(PopulatedEntity::getPrimaryKeyValue)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+            if(ids.isEmpty())
             {
-                if(tableBlueprint.isApplicableForEntityClass(populatedEntity.getEntityInstance().getClass()))
-                {
-                    continue;
-                }
+                continue;
+            }
 
-                String primaryKeyColumnName = tableBlueprint.getPrimaryKeyColumnName();
-                List<?> orphanIds;
+            String primaryKeyColumnName = tableBlueprint.getPrimaryKeyColumnName();
+            List<?> orphanIds;
 
-                try(PhotonPreparedStatement statement = new PhotonPreparedStatement(
-                    tableBlueprint.getSelectByIdSql(),
-                    false,
-                    connection,
-                    photonOptions))
-                {
-                    statement.setNextParameter(
-                        populatedEntity.getPrimaryKeyValue(),
-                        tableBlueprint.getPrimaryKeyColumn().getColumnDataType(),
-                        tableBlueprint.getPrimaryKeyColumnSerializer());
-                    List<PhotonQueryResultRow> rows =
-                        statement.executeQuery(Collections.singletonList(primaryKeyColumnName), Collections.singletonList(primaryKeyColumnName.toLowerCase()));
-                    orphanIds =
-                        rows.stream().map(r -> r.getValue(primaryKeyColumnName)).collect(Collectors.toList());
-                }
-                if(orphanIds.size() > 0)
-                {
-                    deleteTableOrphansAndItsChildrenRecursive(orphanIds, entityBlueprint, tableBlueprint, connection, photonOptions);
-                }
+            try(PhotonPreparedStatement statement = new PhotonPreparedStatement(
+                tableBlueprint.getSelectByIdsSql(),
+                false,
+                connection,
+                photonOptions))
+            {
+                statement.setNextArrayParameter(
+                    ids,
+                    tableBlueprint.getPrimaryKeyColumn().getColumnDataType(),
+                    tableBlueprint.getPrimaryKeyColumnSerializer());
+                List<PhotonQueryResultRow> rows =
+                    statement.executeQuery(Collections.singletonList(primaryKeyColumnName), Collections.singletonList(primaryKeyColumnName.toLowerCase()));
+                orphanIds =
+                    rows.stream().map(r -> r.getValue(primaryKeyColumnName)).collect(Collectors.toList());
             }
+            if(orphanIds.size() > 0)
+            {
+                deleteTableOrphansAndItsChildrenRecursive(orphanIds, entityBlueprint, tableBlueprint, connection, photonOptions);
+            }
+        }
+    }
+
+    private static List<List<PopulatedEntity>> groupParentsForOrphanQueries(
+        Map<PopulatedEntity, List<Object>> childIdsByParent,
+        PhotonOptions photonOptions)
+    {
+        // The parent ids and the ids of their children are both bound in the orphans query, so the parents are grouped
+        // so that each query's lists fit in a single statement. The child id list cannot be split into multiple
+        // executions because the query excludes them with NOT IN.
+        List<List<PopulatedEntity>> parentGroups = new ArrayList<>();
+        List<PopulatedEntity> parentGroup = new ArrayList<>();
+        int childIdCount = 0;
+
+        for(Map.Entry<PopulatedEntity, List<Object>> entry : childIdsByParent.entrySet())
+        {
+            int parentChildIdCount = entry.getValue().size();
+            if(!parentGroup.isEmpty() &&
+                !canExcludeInSql(parentGroup.size() + 1, childIdCount + parentChildIdCount, photonOptions))
+            {
+                parentGroups.add(parentGroup);
+                parentGroup = new ArrayList<>();
+                childIdCount = 0;
+            }
+            parentGroup.add(entry.getKey());
+            childIdCount += parentChildIdCount;
         }
+
+        parentGroups.add(parentGroup);
+        return parentGroups;
+    }
+
+    private static boolean canExcludeInSql(int parentIdCount, int childIdCount, PhotonOptions photonOptions)
+    {
+        if(photonOptions.isEnableArrayParameters())
+        {
+            // Each list is bound as a single array parameter, so any number of ids fit.
+            return true;
+        }
+
+        // IN lists can be padded up to twice their size.
+        return parentIdCount <= photonOptions.getMaxInListSize() &&
+            childIdCount <= photonOptions.getMaxInListSize() &&
+            parentIdCount * 2 + childIdCount <= photonOptions.getMaxBindParameters();
+    }
+
+    private static TableValue toDatabaseKey(Object value, TableBlueprint tableBlueprint, Converter customSerializer)
+    {
+        return new TableValue(PhotonPreparedStatement.convertValue(
+            new ParameterValue(value, tableBlueprint.getPrimaryKeyColumn().getColumnDataType(), customSerializer)));
     }
 
     private static void deleteOrphansAndTheirChildrenRecursive(
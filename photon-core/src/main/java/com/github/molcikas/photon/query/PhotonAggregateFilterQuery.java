@@ -4,15 +4,18 @@ import com.github.molcikas.photon.Photon;
 import com.github.molcikas.photon.sqlbuilders.SqlBuilderApplyOptionsService;
 import org.apache.commons.lang3.StringUtils;
 import com.github.molcikas.photon.blueprints.AggregateBlueprint;
+import com.github.molcikas.photon.blueprints.table.TableBlueprint;
 import com.github.molcikas.photon.exceptions.PhotonException;
 
 import java.sql.Connection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class PhotonAggregateFilterQuery<T>
 {
     private final PhotonAggregateQuery<T> photonAggregateQuery;
     private final PhotonQuery photonQuery;
+    private final PhotonQuery keysQuery;
     private final boolean isQueryIdsOnly;
 
     PhotonAggregateFilterQuery(
@@ -33,11 +36,28 @@ public class PhotonAggregateFilterQuery<T>
 
         if(isWhereClauseOnly)
         {
-            selectSql = String.format(aggregateBlueprint.getAggregateRootEntityBlueprint().getTableBlueprint().getSelectWhereSql(), selectSql);
-            selectSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(selectSql, photon.getOptions());
+            TableBlueprint tableBlueprint = aggregateBlueprint.getAggregateRootEntityBlueprint().getTableBlueprint();
+            String keysSql = String.format(tableBlueprint.getSelectKeysWhereSql(), selectSql);
+            keysSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(keysSql, photon.getOptions());
+            if(aggregateBlueprint.getAggregateRootEntityBlueprint().getJoinFetchedChildFields().isEmpty())
+            {
+                selectSql = String.format(tableBlueprint.getSelectWhereSql(), selectSql);
+                selectSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(selectSql, photon.getOptions());
+            }
+            else
+            {
+                // A where clause on a child that is fetched with a join would also filter out the child rows, so the
+                // aggregate roots are selected by the keys that match the where clause instead.
+                selectSql = String.format(tableBlueprint.getSelectSql(), keysSql);
+            }
+            this.photonQuery = new PhotonQuery(selectSql, false, connection, photon);
+            this.keysQuery = new PhotonQuery(keysSql, false, connection, photon);
+        }
+        else
+        {
+            this.photonQuery = new PhotonQuery(selectSql, false, connection, photon);
+            this.keysQuery = photonQuery;
         }
-
-        this.photonQuery = new PhotonQuery(selectSql, false, connection, photon);
     }
 
     /**
@@ -50,6 +70,10 @@ public class PhotonAggregateFilterQuery<T>
     public PhotonAggregateFilterQuery<T> addParameter(String parameter, Object value)
     {
         photonQuery.addParameter(parameter, value);
+        if(keysQuery != photonQuery)
+        {
+            keysQuery.addParameter(parameter, value);
+        }
         return this;
     }
 
@@ -86,4 +110,22 @@ public class PhotonAggregateFilterQuery<T>
             return photonAggregateQuery.fetchListByQuery(photonQuery);
         }
     }
+
+    /**
+     * Execute the query and return a stream that fetches the aggregates a chunk at a time as the stream is consumed.
+     * Each chunk is the next set of aggregate ids in primary key order after the previous chunk, and the aggregates
+     * are sorted within each chunk. Unless noTracking() is set, the aggregates that have been fetched stay tracked
+     * by the transaction, so use noTracking() to keep memory bounded when streaming a large number of aggregates.
+     *
+     * @param chunkSize - The number of aggregates to fetch at a time
+     * @return - A stream of the aggregate instances
+     */
+    public Stream<T> fetchStream(int chunkSize)
+    {
+        if(chunkSize < 1)
+        {
+            throw new PhotonException("The chunk size must be at least 1.");
+        }
+        return photonAggregateQuery.fetchStreamByKeysQuery(keysQuery, chunkSize);
+    }
 }
@@ -4,14 +4,22 @@ import com.github.molcikas.photon.Photon;
 import com.github.molcikas.photon.PhotonEntityState;
 import com.github.molcikas.photon.blueprints.AggregateBlueprint;
 import com.github.molcikas.photon.blueprints.entity.EntityBlueprint;
+import com.github.molcikas.photon.blueprints.entity.FetchStrategy;
 import com.github.molcikas.photon.blueprints.entity.FieldBlueprint;
 import com.github.molcikas.photon.blueprints.entity.FlattenedCollectionBlueprint;
+import com.github.molcikas.photon.blueprints.table.TableBlueprint;
+import com.github.molcikas.photon.blueprints.table.TableValue;
 import com.github.molcikas.photon.exceptions.PhotonException;
+import com.github.molcikas.photon.options.IdTableMode;
 import org.apache.commons.lang3.StringUtils;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class PhotonAggregateQuery<T>
 {
@@ -75,7 +83,8 @@ public class PhotonAggregateQuery<T>
     }
 
     /**
-     * Fetch a list of aggregates by ids.
+     * Fetch a list of aggregates by ids. If there are more ids than PhotonOptions.maxInListSize, the ids are fetched
+     * in chunks and the aggregates are only sorted within each chunk.
      *
      * @param ids - The ids
      * @return - The aggregate instances
@@ -130,13 +139,147 @@ public class PhotonAggregateQuery<T>
         return getPopulatedAggregateRoots(null, photonQuery, false);
     }
 
+    Stream<T> fetchStreamByKeysQuery(PhotonQuery keysQuery, int chunkSize)
+    {
+        TableBlueprint tableBlueprint = aggregateBlueprint.getAggregateRootEntityBlueprint().getTableBlueprint();
+        String keysSql = keysQuery.getSqlTextWithQuestionMarks();
+        String selectFirstKeysSql = String.format(tableBlueprint.getSelectFirstKeysSql(), keysSql);
+        String selectNextKeysSql = String.format(tableBlueprint.getSelectNextKeysSql(), keysSql);
+        String primaryKeyColumnName = tableBlueprint.getPrimaryKeyColumnName();
+        PhotonRowReader keyRowReader = new PhotonRowReader(
+            Collections.singletonList(primaryKeyColumnName),
+            Collections.singletonList(primaryKeyColumnName.toLowerCase()));
+
+        Iterator<List<T>> chunks = new Iterator<List<T>>()
+        {
+            private Object lastKey;
+            private List<T> nextChunk;
+            private boolean isDone;
+
+            @Override
+            public boolean hasNext()
+            {
+                if(nextChunk == null && !isDone)
+                {
+                    nextChunk = fetchNextChunk();
+                    isDone = nextChunk.isEmpty();
+                }
+                return !isDone;
+            }
+
+            @Override
+            public List<T> next()
+            {
+                if(!hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+                List<T> chunk = nextChunk;
+                nextChunk = null;
+                return chunk;
+            }
+
+            private List<T> fetchNextChunk()
+            {
+                List<T> chunk = Collections.emptyList();
+                while(chunk.isEmpty())
+                {
+                    List<?> keys = fetchNextKeys();
+                    if(keys.isEmpty())
+                    {
+                        break;
+                    }
+                    lastKey = keys.get(keys.size() - 1);
+                    // The aggregates can be deleted after their keys are selected, so keep going until a chunk is found.
+                    chunk = getPopulatedAggregateRoots(keys, null, false);
+                }
+                return chunk;
+            }
+
+            private List<?> fetchNextKeys()
+            {
+                // The keys are selected by keyset instead of by offset, so each chunk costs the same no matter how
+                // far into the results it is.
+                String selectSql = lastKey == null ? selectFirstKeysSql : selectNextKeysSql;
+                try (PhotonPreparedStatement statement = new PhotonPreparedStatement(selectSql, false, connection, photon.getOptions()))
+                {
+                    for(PhotonSqlParameter photonSqlParameter : keysQuery.getParameters())
+                    {
+                        statement.setNextParameter(photonSqlParameter);
+                    }
+                    if(lastKey != null)
+                    {
+                        statement.setNextParameter(
+                            lastKey,
+                            tableBlueprint.getPrimaryKeyColumn().getColumnDataType(),
+                            tableBlueprint.getPrimaryKeyColumnSerializer()
+                        );
+                    }
+                    return statement
+                        .executeQuery(keyRowReader, chunkSize)
+                        .stream()
+                        .map(PhotonQueryResultRow::getFirstValue)
+                        .collect(Collectors.toList());
+                }
+            }
+        };
+
+        return StreamSupport
+            .stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .flatMap(List::stream);
+    }
+
     private List<T> getPopulatedAggregateRoots(List<?> ids, PhotonQuery photonQuery, boolean isQueryIdsOnly)
     {
         PopulatedEntityMap populatedEntityMap = new PopulatedEntityMap();
 
-        for(EntityBlueprint entityBlueprint : aggregateBlueprint.getEntityBlueprints(excludedFieldPaths))
+        // The root entities are selected with the ids or the filter query. Every other entity is selected with the ids
+        // of the root entities that were found, so the filter query runs only once.
+        // Children that are fetched with a join are selected with their parent instead of with their own query.
+        Set<EntityBlueprint> includedEntityBlueprints = new HashSet<>(aggregateBlueprint.getEntityBlueprints(excludedFieldPaths));
+        List<EntityBlueprint> entityBlueprints = aggregateBlueprint
+            .getEntityBlueprints(excludedFieldPaths)
+            .stream()
+            .filter(e -> e.getFetchStrategy() != FetchStrategy.Join)
+            .collect(Collectors.toList());
+
+        // A large list of ids is loaded into a temporary table once instead of being bound to every entity's query.
+        String idsSql = null;
+        if(ids != null && canUseIdTable(ids))
+        {
+            loadIdTable(ids);
+            idsSql = aggregateBlueprint.getAggregateRootEntityBlueprint().getTableBlueprint().getSelectIdTableSql();
+        }
+
+        try
+        {
+            for(int i = 0; i < entityBlueprints.size(); i++)
+            {
+                List<EntityBlueprint> remainingEntityBlueprints = entityBlueprints.subList(i, entityBlueprints.size());
+                if(photonQuery == null && idsSql == null && canSelectInOneStatement(remainingEntityBlueprints, ids))
+                {
+                    // Once the ids are known, the remaining entities are selected in a single round trip.
+                    selectInOneStatementAndCreateEntityOrphans(
+                        populatedEntityMap, remainingEntityBlueprints, ids, includedEntityBlueprints);
+                    break;
+                }
+
+                ids = executeQueryAndCreateEntityOrphans(
+                    populatedEntityMap, entityBlueprints.get(i), ids, idsSql, photonQuery, isQueryIdsOnly, includedEntityBlueprints);
+                photonQuery = null;
+                if(ids.isEmpty())
+                {
+                    // No aggregates were found, so there are no child entities to select.
+                    break;
+                }
+            }
+        }
+        finally
         {
-            ids = executeQueryAndCreateEntityOrphans(populatedEntityMap, entityBlueprint, ids, photonQuery, isQueryIdsOnly);
+            if(idsSql != null)
+            {
+                clearIdTable();
+            }
         }
 
         populatedEntityMap.mapAllEntityInstanceChildren();
@@ -157,12 +300,22 @@ public class PhotonAggregateQuery<T>
         PopulatedEntityMap populatedEntityMap,
         EntityBlueprint entityBlueprint,
         List<?> ids,
+        String idsSql,
         PhotonQuery photonQuery,
-        boolean isQueryIdsOnly)
+        boolean isQueryIdsOnly,
+        Set<EntityBlueprint> includedEntityBlueprints)
     {
         List<PhotonQueryResultRow> queryResultRows;
 
-        if(ids != null)
+        if(idsSql != null)
+        {
+            String selectSql = String.format(entityBlueprint.getTableBlueprint().getSelectSql(), idsSql);
+            try (PhotonPreparedStatement statement = new PhotonPreparedStatement(selectSql, false, connection, photon.getOptions()))
+            {
+                queryResultRows = statement.executeQuery(entityBlueprint.getRowReaderWithJoinFetchedChildren());
+            }
+        }
+        else if(ids != null)
         {
             String selectSql = entityBlueprint.getTableBlueprint().getSelectWithQuestionSql();
             try (PhotonPreparedStatement statement = new PhotonPreparedStatement(selectSql, false, connection, photon.getOptions()))
@@ -172,7 +325,7 @@ public class PhotonAggregateQuery<T>
                     entityBlueprint.getTableBlueprint().getPrimaryKeyColumn().getColumnDataType(),
                     entityBlueprint.getTableBlueprint().getPrimaryKeyColumnSerializer()
                 );
-                queryResultRows = statement.executeQuery(entityBlueprint.getAllColumnNamesQualified(), entityBlueprint.getAllColumnNamesQualifiedLowerCase());
+                queryResultRows = statement.executeQuery(entityBlueprint.getRowReaderWithJoinFetchedChildren());
             }
         }
         else if(photonQuery != null)
@@ -192,7 +345,7 @@ public class PhotonAggregateQuery<T>
                 {
                     statement.setNextParameter(photonSqlParameter);
                 }
-                queryResultRows = statement.executeQuery(entityBlueprint.getAllColumnNamesQualified(), entityBlueprint.getAllColumnNamesQualifiedLowerCase());
+                queryResultRows = statement.executeQuery(entityBlueprint.getRowReaderWithJoinFetchedChildren());
             }
         }
         else
@@ -200,10 +353,11 @@ public class PhotonAggregateQuery<T>
             throw new PhotonException("Ids list and query were both null.");
         }
 
-        queryResultRows.forEach(queryResultRow -> populatedEntityMap.createPopulatedEntity(entityBlueprint, queryResultRow));
+        createPopulatedEntities(populatedEntityMap, entityBlueprint, queryResultRows, includedEntityBlueprints);
 
-        if(ids == null)
+        if(entityBlueprint == aggregateBlueprint.getAggregateRootEntityBlueprint())
         {
+            // Use the ids of the aggregates that were found, which drops requested ids that do not exist.
             ids = populatedEntityMap
                 .getPopulatedEntitiesForBlueprint(entityBlueprint)
                 .stream()
@@ -211,22 +365,227 @@ public class PhotonAggregateQuery<T>
                 .collect(Collectors.toList());
         }
 
-        populateFlattenedCollectionFields(populatedEntityMap, entityBlueprint, ids);
+        populateFlattenedCollectionFields(populatedEntityMap, entityBlueprint, ids, idsSql);
 
         return ids;
     }
 
-    private void populateFlattenedCollectionFields(PopulatedEntityMap populatedEntityMap, EntityBlueprint entityBlueprint, List<?> ids)
+    private boolean canUseIdTable(List<?> ids)
+    {
+        return photon.getOptions().getIdTableMode() != IdTableMode.Disabled &&
+            ids.size() > photon.getOptions().getIdTableThreshold();
+    }
+
+    private void loadIdTable(List<?> ids)
+    {
+        TableBlueprint tableBlueprint = aggregateBlueprint.getAggregateRootEntityBlueprint().getTableBlueprint();
+
+        // The table is created with a plain statement because SQL Server runs prepared statements with sp_executesql,
+        // and a #temp table created inside of it is dropped as soon as the call returns.
+        try (Statement statement = connection.createStatement())
+        {
+            statement.execute(tableBlueprint.getCreateIdTableSql());
+        }
+        catch(SQLException ex)
+        {
+            throw new PhotonException(ex, "Error creating id table with SQL:\n%s", tableBlueprint.getCreateIdTableSql());
+        }
+
+        // A load that failed part way could have left ids in the table, and the table lives as long as the connection.
+        clearIdTable();
+
+        int batchSize = photon.getOptions().getBatchSize();
+        try (PhotonPreparedStatement statement = new PhotonPreparedStatement(tableBlueprint.getInsertIdTableSql(), false, connection, photon.getOptions()))
+        {
+            for(int batchStart = 0; batchStart < ids.size(); batchStart += batchSize)
+            {
+                int batchEnd = Math.min(batchStart + batchSize, ids.size());
+                for(Object id : ids.subList(batchStart, batchEnd))
+                {
+                    statement.setNextParameter(
+                        id,
+                        tableBlueprint.getPrimaryKeyColumn().getColumnDataType(),
+                        tableBlueprint.getPrimaryKeyColumnSerializer()
+                    );
+                    statement.addToBatch();
+                }
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private void clearIdTable()
     {
+        // The rows are deleted instead of dropping the table because DDL commits the transaction on some databases.
+        TableBlueprint tableBlueprint = aggregateBlueprint.getAggregateRootEntityBlueprint().getTableBlueprint();
+        try (PhotonPreparedStatement statement = new PhotonPreparedStatement(tableBlueprint.getDeleteIdTableSql(), false, connection, photon.getOptions()))
+        {
+            statement.executeUpdate();
+        }
+    }
+
+    private void createPopulatedEntities(
+        PopulatedEntityMap populatedEntityMap,
+        EntityBlueprint entityBlueprint,
+        List<PhotonQueryResultRow> queryResultRows,
+        Set<EntityBlueprint> includedEntityBlueprints)
+    {
+        List<FieldBlueprint> joinFetchedChildFields = entityBlueprint.getJoinFetchedChildFields();
+        if(joinFetchedChildFields.isEmpty())
+        {
+            queryResultRows.forEach(queryResultRow -> populatedEntityMap.createPopulatedEntity(entityBlueprint, queryResultRow));
+            return;
+        }
+
+        // Each row holds a parent and at most one child of each joined child entity, so the parents and children are
+        // repeated across rows and only the first row for each primary key is used.
+        PhotonRowReader rowReader = entityBlueprint.getRowReader(true);
+        Set<TableValue> parentPrimaryKeys = new HashSet<>();
+        List<Set<TableValue>> childPrimaryKeys = new ArrayList<>(joinFetchedChildFields.size());
+        joinFetchedChildFields.forEach(f -> childPrimaryKeys.add(new HashSet<>()));
+
+        for(PhotonQueryResultRow queryResultRow : queryResultRows)
+        {
+            PhotonQueryResultRow parentRow = queryResultRow.slice(rowReader, 0);
+            if(parentPrimaryKeys.add(new TableValue(parentRow.getValue(entityBlueprint.getPrimaryKeySlot()))))
+            {
+                populatedEntityMap.createPopulatedEntity(entityBlueprint, parentRow);
+            }
+
+            int startSlot = rowReader.getSlotCount();
+            for(int i = 0; i < joinFetchedChildFields.size(); i++)
+            {
+                EntityBlueprint childEntityBlueprint = joinFetchedChildFields.get(i).getChildEntityBlueprint();
+                PhotonRowReader childRowReader = childEntityBlueprint.getRowReader(true);
+                if(includedEntityBlueprints.contains(childEntityBlueprint))
+                {
+                    PhotonQueryResultRow childRow = queryResultRow.slice(childRowReader, startSlot);
+                    Object childPrimaryKey = childRow.getValue(childEntityBlueprint.getPrimaryKeySlot());
+                    if(childPrimaryKey != null && childPrimaryKeys.get(i).add(new TableValue(childPrimaryKey)))
+                    {
+                        populatedEntityMap.createPopulatedEntity(childEntityBlueprint, childRow);
+                    }
+                }
+                startSlot += childRowReader.getSlotCount();
+            }
+        }
+    }
+
+    private boolean canSelectInOneStatement(List<EntityBlueprint> entityBlueprints, List<?> ids)
+    {
+        if(!photon.getOptions().isEnableMultipleResultSets() || ids.isEmpty())
+        {
+            return false;
+        }
+
+        int statementCount = 0;
+        for(EntityBlueprint entityBlueprint : entityBlueprints)
+        {
+            statementCount += 1 + entityBlueprint.getFlattenedCollectionFields().size();
+        }
+        if(statementCount < 2)
+        {
+            return false;
+        }
+
+        // Each statement gets its own copy of the ids, padded up to a power of two, and the ids cannot be split into
+        // chunks since every statement's result set is read from the same execution.
+        int paddedIdCount = ids.size() == 1 ? 1 : Integer.highestOneBit(ids.size() - 1) << 1;
+        return ids.size() <= photon.getOptions().getMaxInListSize() &&
+            (long) paddedIdCount * statementCount <= photon.getOptions().getMaxBindParameters();
+    }
+
+    private void selectInOneStatementAndCreateEntityOrphans(
+        PopulatedEntityMap populatedEntityMap,
+        List<EntityBlueprint> entityBlueprints,
+        List<?> ids,
+        Set<EntityBlueprint> includedEntityBlueprints)
+    {
+        List<String> selectSqls = new ArrayList<>();
+        List<PhotonRowReader> rowReaders = new ArrayList<>();
+        for(EntityBlueprint entityBlueprint : entityBlueprints)
+        {
+            selectSqls.add(entityBlueprint.getTableBlueprint().getSelectWithQuestionSql());
+            rowReaders.add(entityBlueprint.getRowReaderWithJoinFetchedChildren());
+        }
+        for(EntityBlueprint entityBlueprint : entityBlueprints)
+        {
+            for(FieldBlueprint fieldBlueprint : entityBlueprint.getFlattenedCollectionFields())
+            {
+                selectSqls.add(fieldBlueprint.getFlattenedCollectionBlueprint().getSelectSql());
+                rowReaders.add(fieldBlueprint.getFlattenedCollectionBlueprint().getSelectRowReader());
+            }
+        }
+
+        List<List<PhotonQueryResultRow>> results;
+        String selectSql = StringUtils.join(selectSqls, ";\n");
+        try (PhotonPreparedStatement statement = new PhotonPreparedStatement(selectSql, false, connection, photon.getOptions()))
+        {
+            for(EntityBlueprint entityBlueprint : entityBlueprints)
+            {
+                statement.setNextArrayParameter(
+                    ids,
+                    entityBlueprint.getTableBlueprint().getPrimaryKeyColumn().getColumnDataType(),
+                    entityBlueprint.getTableBlueprint().getPrimaryKeyColumnSerializer()
+                );
+            }
+            for(EntityBlueprint entityBlueprint : entityBlueprints)
+            {
+                for(FieldBlueprint fieldBlueprint : entityBlueprint.getFlattenedCollectionFields())
+                {
+                    statement.setNextArrayParameter(
+                        ids,
+                        entityBlueprint.getTableBlueprint().getPrimaryKeyColumn().getColumnDataType(),
+                        entityBlueprint.getTableBlueprint().getPrimaryKeyColumnSerializer()
+                    );
+                }
+            }
+            results = statement.executeQueries(rowReaders);
+        }
+
+        // Every entity must exist before the flattened collection values are set on them.
+        Iterator<List<PhotonQueryResultRow>> resultIterator = results.iterator();
+        for(EntityBlueprint entityBlueprint : entityBlueprints)
+        {
+            createPopulatedEntities(populatedEntityMap, entityBlueprint, resultIterator.next(), includedEntityBlueprints);
+        }
+        for(EntityBlueprint entityBlueprint : entityBlueprints)
+        {
+            for(FieldBlueprint fieldBlueprint : entityBlueprint.getFlattenedCollectionFields())
+            {
+                populatedEntityMap.setFieldValuesOnEntityInstances(resultIterator.next(), fieldBlueprint, entityBlueprint);
+            }
+        }
+    }
+
+    private void populateFlattenedCollectionFields(
+        PopulatedEntityMap populatedEntityMap,
+        EntityBlueprint entityBlueprint,
+        List<?> ids,
+        String idsSql)
+    {
+        if(ids.isEmpty())
+        {
+            return;
+        }
+
         for(FieldBlueprint fieldBlueprint : entityBlueprint.getFlattenedCollectionFields())
         {
             FlattenedCollectionBlueprint flattenedCollectionBlueprint = fieldBlueprint.getFlattenedCollectionBlueprint();
-            try (PhotonPreparedStatement statement = new PhotonPreparedStatement(flattenedCollectionBlueprint.getSelectSql(), false, connection, photon.getOptions()))
+            String selectSql = idsSql != null ?
+                String.format(flattenedCollectionBlueprint.getSelectWhereInSql(), idsSql) :
+                flattenedCollectionBlueprint.getSelectSql();
+            try (PhotonPreparedStatement statement = new PhotonPreparedStatement(selectSql, false, connection, photon.getOptions()))
             {
-                statement.setNextArrayParameter(ids, flattenedCollectionBlueprint.getColumnDataType(), null);
-                List<PhotonQueryResultRow> queryResultRows = statement.executeQuery(
-                    flattenedCollectionBlueprint.getSelectColumnNames(),
-                    flattenedCollectionBlueprint.getSelectColumnNamesLowerCase());
+                if(idsSql == null)
+                {
+                    statement.setNextArrayParameter(
+                        ids,
+                        entityBlueprint.getTableBlueprint().getPrimaryKeyColumn().getColumnDataType(),
+                        entityBlueprint.getTableBlueprint().getPrimaryKeyColumnSerializer()
+                    );
+                }
+                List<PhotonQueryResultRow> queryResultRows = statement.executeQuery(flattenedCollectionBlueprint.getSelectRowReader());
                 populatedEntityMap.setFieldValuesOnEntityInstances(queryResultRows, fieldBlueprint, entityBlueprint);
             }
         }
@@ -8,8 +8,8 @@ import com.github.molcikas.photon.blueprints.entity.FlattenedCollectionBlueprint
 import com.github.molcikas.photon.blueprints.table.TableBlueprint;
 import com.github.molcikas.photon.blueprints.table.TableBlueprintAndKey;
 import com.github.molcikas.photon.blueprints.table.TableValue;
-import com.github.molcikas.photon.converters.Convert;
 import com.github.molcikas.photon.converters.Converter;
+import com.github.molcikas.photon.exceptions.PhotonException;
 import com.github.molcikas.photon.exceptions.PhotonOptimisticConcurrencyException;
 import com.github.molcikas.photon.options.PhotonOptions;
 import com.github.molcikas.photon.sqlbuilders.UpdateSqlBuilderService;
@@ -17,15 +17,20 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import java.sql.Connection;
+import java.sql.Statement;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class PhotonAggregateSave
 {
+    // SQL Server does not allow more than 1000 rows in a VALUES clause.
+    private static final int MAX_ROWS_PER_MULTI_ROW_INSERT = 1000;
+
     private final AggregateBlueprint aggregateBlueprint;
     private final Connection connection;
     private final PhotonEntityState photonEntityState;
     private final PhotonOptions photonOptions;
+    private PopulatedEntityArena populatedEntityArena;
 
     public PhotonAggregateSave(
         AggregateBlueprint aggregateBlueprint,
@@ -41,12 +46,14 @@ public class PhotonAggregateSave
 
     public void save(Object aggregateInstance, Collection<String> fieldPathsToExclude)
     {
+        populatedEntityArena = new PopulatedEntityArena();
         PopulatedEntity aggregateRootEntity = new PopulatedEntity(aggregateBlueprint.getAggregateRootEntityBlueprint(), aggregateInstance);
         saveEntitiesRecursive(aggregateBlueprint.getAggregateRootEntityBlueprint(), Collections.singletonList(aggregateRootEntity), null, null, false, fieldPathsToExclude, "");
     }
 
     public void saveAll(Collection<?> aggregateInstances, Collection<String> fieldPathsToExclude)
     {
+        populatedEntityArena = new PopulatedEntityArena();
         List<PopulatedEntity> aggregateRootEntities =  aggregateInstances
             .stream()
             .map(instance -> new PopulatedEntity(aggregateBlueprint.getAggregateRootEntityBlueprint(), instance))
@@ -56,12 +63,14 @@ public class PhotonAggregateSave
 
     public void insert(Object aggregateInstance)
     {
+        populatedEntityArena = new PopulatedEntityArena();
         PopulatedEntity aggregateRootEntity = new PopulatedEntity(aggregateBlueprint.getAggregateRootEntityBlueprint(),  aggregateInstance);
         saveEntitiesRecursive(aggregateBlueprint.getAggregateRootEntityBlueprint(), Collections.singletonList(aggregateRootEntity), null, null, true, null, "");
     }
 
     public void insertAll(Collection<?> aggregateInstances)
     {
+        populatedEntityArena = new PopulatedEntityArena();
         List<PopulatedEntity> aggregateRootEntities =  aggregateInstances
             .stream()
             .map(instance -> new PopulatedEntity(aggregateBlueprint.getAggregateRootEntityBlueprint(), instance))
@@ -94,8 +103,6 @@ public class PhotonAggregateSave
 
         if(!isInsert)
         {
-            Orphans.findAndDelete(entityBlueprint, populatedEntities, parentPopulatedEntity,
-                parentFieldBlueprint, photonEntityState, connection, photonOptions);
             Orphans.findAndDeleteJoined(entityBlueprint, populatedEntities, connection, photonOptions);
         }
 
@@ -118,27 +125,26 @@ public class PhotonAggregateSave
         }
 
         Map<TableBlueprint, List<PopulatedEntity>> populatedEntitiesToInsert = new LinkedHashMap<>();
+        // Sets of entities are compared by identity so that each check is constant time no matter how many siblings
+        // are being saved.
+        Set<PopulatedEntity> populatedEntitiesToInsertSet = Collections.newSetFromMap(new IdentityHashMap<>());
 
         for(TableBlueprint tableBlueprint : entityBlueprint.getTableBlueprintsForInsertOrUpdate())
         {
+            Set<PopulatedEntity> updatedPopulatedEntitiesForTable = Collections.newSetFromMap(new IdentityHashMap<>());
+            updatedPopulatedEntitiesForTable.addAll(updatedPopulatedEntities.get(tableBlueprint));
             List<PopulatedEntity> entitiesToInsert = populatedEntities
                 .stream()
                 .filter(p -> tableBlueprint.isApplicableForEntityClass(p.getEntityInstance().getClass()))
-                .filter(p -> !updatedPopulatedEntities.get(tableBlueprint).contains(p))
+                .filter(p -> !updatedPopulatedEntitiesForTable.contains(p))
                 .collect(Collectors.toList());
             populatedEntitiesToInsert.put(tableBlueprint, entitiesToInsert);
+            populatedEntitiesToInsertSet.addAll(entitiesToInsert);
         }
 
-        List<PopulatedEntity> populatedEntitiesToInsertList = populatedEntitiesToInsert
-            .values()
-            .stream()
-            .flatMap(Collection::stream)
-            .distinct()
-            .collect(Collectors.toList());
-
         if(!isInsert && entityBlueprint.getVersionField() != null)
         {
-            if(!populatedEntitiesToInsertList.isEmpty())
+            if(!populatedEntitiesToInsertSet.isEmpty())
             {
                 throw new PhotonOptimisticConcurrencyException();
             }
@@ -155,18 +161,39 @@ public class PhotonAggregateSave
 
         insertAndDeleteFlattenedCollectionFields(populatedEntities, entityBlueprint.getFlattenedCollectionFields());
 
-        for(PopulatedEntity populatedEntity : populatedEntities)
+        for (FieldBlueprint fieldBlueprint : entityBlueprint.getFieldsWithChildEntities())
         {
-            for (FieldBlueprint fieldBlueprint : entityBlueprint.getFieldsWithChildEntities())
+            String childFieldPath = fieldPath + (StringUtils.isBlank(fieldPath) ? "" : ".") + fieldBlueprint.getFieldName();
+            if(fieldPathsToExclude.contains(childFieldPath))
+            {
+                continue;
+            }
+
+            Map<PopulatedEntity, List<PopulatedEntity>> fieldPopulatedEntitiesByParent = new LinkedHashMap<>();
+            Map<PopulatedEntity, List<PopulatedEntity>> existingParentFieldPopulatedEntities = new LinkedHashMap<>();
+            for(PopulatedEntity populatedEntity : populatedEntities)
+            {
+                List<PopulatedEntity> fieldPopulatedEntities =
+                    populatedEntityArena.getChildPopulatedEntities(populatedEntity, fieldBlueprint);
+                fieldPopulatedEntitiesByParent.put(populatedEntity, fieldPopulatedEntities);
+                if(!populatedEntitiesToInsertSet.contains(populatedEntity))
+                {
+                    existingParentFieldPopulatedEntities.put(populatedEntity, fieldPopulatedEntities);
+                }
+            }
+
+            // Find orphans for all of the existing parents at once rather than querying for each parent.
+            Orphans.findAndDelete(fieldBlueprint.getChildEntityBlueprint(), existingParentFieldPopulatedEntities,
+                fieldBlueprint, photonEntityState, connection, photonOptions);
+
+            for(Map.Entry<PopulatedEntity, List<PopulatedEntity>> entry : fieldPopulatedEntitiesByParent.entrySet())
             {
-                String childFieldPath = fieldPath + (StringUtils.isBlank(fieldPath) ? "" : ".") + fieldBlueprint.getFieldName();
-                List<PopulatedEntity> fieldPopulatedEntities = populatedEntity.getChildPopulatedEntitiesForField(fieldBlueprint);
                 saveEntitiesRecursive(
                     fieldBlueprint.getChildEntityBlueprint(),
-                    fieldPopulatedEntities,
-                    populatedEntity,
+                    entry.getValue(),
+                    entry.getKey(),
                     fieldBlueprint,
-                    populatedEntitiesToInsertList.contains(populatedEntity),
+                    populatedEntitiesToInsertSet.contains(entry.getKey()),
                     fieldPathsToExclude,
                     childFieldPath
                 );
@@ -189,6 +216,10 @@ public class PhotonAggregateSave
         for(TableBlueprint tableBlueprint : entityBlueprint.getTableBlueprintsForInsertOrUpdate())
         {
             final List<PopulatedEntity> updatedPopulatedEntitiesForTable = new ArrayList<>(populatedEntities.size());
+            final Set<PopulatedEntity> updatedPopulatedEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+            final Set<PopulatedEntity> trackedPopulatedEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+            final Map<String, List<PopulatedEntity>> populatedEntitiesByUpdateSql = new LinkedHashMap<>();
+            final Map<PopulatedEntity, Map<String, ParameterValue>> valuesForUpdate = new IdentityHashMap<>();
 
             for (PopulatedEntity<?> populatedEntity : populatedEntities)
             {
@@ -197,7 +228,7 @@ public class PhotonAggregateSave
                     continue;
                 }
 
-                Map<String, ParameterValue> trackedValues =
+                Object[] trackedValues =
                     photonEntityState.getTrackedValues(tableBlueprint, populatedEntity.getPrimaryKey());
                 GetParameterValuesResult valuesForUpdateResult =
                     populatedEntity.getParameterValuesForUpdate(tableBlueprint, parentPopulatedEntity, trackedValues);
@@ -208,37 +239,112 @@ public class PhotonAggregateSave
                 }
                 if(!valuesForUpdateResult.isChanged())
                 {
-                    updatedPopulatedEntitiesForTable.add(populatedEntity);
+                    updatedPopulatedEntities.add(populatedEntity);
                     continue;
                 }
 
                 String updateSql = tableBlueprint.getUpdateSql(valuesForUpdateResult.getValues().keySet(), photonOptions);
-
-                try(PhotonPreparedStatement updateStatement = new PhotonPreparedStatement(updateSql, false, connection, photonOptions))
+                populatedEntitiesByUpdateSql.computeIfAbsent(updateSql, k -> new ArrayList<>()).add(populatedEntity);
+                valuesForUpdate.put(populatedEntity, valuesForUpdateResult.getValues());
+                // Entities that are not updated are inserted, and the snapshot is tracked for them after the insert.
+                populatedEntityArena.putSnapshot(tableBlueprint, populatedEntity, valuesForUpdateResult.getSnapshot());
+                if(trackedValues != null)
                 {
-                    updateStatement.setNextParameters(new ArrayList<>(valuesForUpdateResult.getValues().values()));
-                    int rowsUpdated = updateStatement.executeUpdate();
+                    trackedPopulatedEntities.add(populatedEntity);
+                }
+            }
+
+            for(Map.Entry<String, List<PopulatedEntity>> entry : populatedEntitiesByUpdateSql.entrySet())
+            {
+                int[] rowsUpdated = executeUpdates(entry.getKey(), entry.getValue(), valuesForUpdate);
 
-                    if(rowsUpdated > 0)
+                for(int i = 0; i < rowsUpdated.length; i++)
+                {
+                    PopulatedEntity populatedEntity = entry.getValue().get(i);
+                    if(rowsUpdated[i] > 0)
                     {
-                        updatedPopulatedEntitiesForTable.add(populatedEntity);
+                        updatedPopulatedEntities.add(populatedEntity);
                     }
-
-                    if(!trackedValues.isEmpty())
+                    if(trackedPopulatedEntities.contains(populatedEntity))
                     {
                         photonEntityState.updateTrackedValues(
                             new TableBlueprintAndKey(tableBlueprint, populatedEntity.getPrimaryKey()),
-                            valuesForUpdateResult.getValues());
+                            populatedEntityArena.removeSnapshot(tableBlueprint, populatedEntity));
                     }
                 }
             }
 
+            // Rebuild the list in the original entity order since the updates were executed grouped by SQL.
+            for (PopulatedEntity<?> populatedEntity : populatedEntities)
+            {
+                if(updatedPopulatedEntities.contains(populatedEntity))
+                {
+                    updatedPopulatedEntitiesForTable.add(populatedEntity);
+                }
+            }
+
             updatedOrUpdateToDateEntities.put(tableBlueprint, updatedPopulatedEntitiesForTable);
         }
 
         return updatedOrUpdateToDateEntities;
     }
 
+    private int[] executeUpdates(
+        String updateSql,
+        List<PopulatedEntity> populatedEntities,
+        Map<PopulatedEntity, Map<String, ParameterValue>> valuesForUpdate)
+    {
+        int[] rowsUpdated = new int[populatedEntities.size()];
+
+        try(PhotonPreparedStatement updateStatement = new PhotonPreparedStatement(updateSql, false, connection, photonOptions))
+        {
+            if(populatedEntities.size() == 1 || photonOptions.getBatchSize() == 1)
+            {
+                for(int i = 0; i < populatedEntities.size(); i++)
+                {
+                    updateStatement.setNextParameters(new ArrayList<>(valuesForUpdate.get(populatedEntities.get(i)).values()));
+                    rowsUpdated[i] = updateStatement.executeUpdate();
+                }
+                return rowsUpdated;
+            }
+
+            int batchSize = photonOptions.getBatchSize();
+            for(int batchStart = 0; batchStart < populatedEntities.size(); batchStart += batchSize)
+            {
+                int batchEnd = Math.min(batchStart + batchSize, populatedEntities.size());
+                for(int i = batchStart; i < batchEnd; i++)
+                {
+                    updateStatement.setNextParameters(new ArrayList<>(valuesForUpdate.get(populatedEntities.get(i)).values()));
+                    updateStatement.addToBatch();
+                }
+                int[] batchRowsUpdated = updateStatement.executeBatch();
+                if(batchRowsUpdated.length != batchEnd - batchStart)
+                {
+                    throw new PhotonException(
+                        "Expected %s row counts from batch update but got %s for SQL:\n%s",
+                        batchEnd - batchStart,
+                        batchRowsUpdated.length,
+                        updateSql
+                    );
+                }
+                for(int i = 0; i < batchRowsUpdated.length; i++)
+                {
+                    if(batchRowsUpdated[i] == Statement.SUCCESS_NO_INFO)
+                    {
+                        throw new PhotonException(
+                            "The JDBC driver did not return row counts for batch update. Set the batchSize " +
+                                "in the Photon options to 1 to disable batching. SQL:\n%s",
+                            updateSql
+                        );
+                    }
+                    rowsUpdated[batchStart + i] = batchRowsUpdated[i];
+                }
+            }
+        }
+
+        return rowsUpdated;
+    }
+
     private void insertPopulatedEntities(
         Map<TableBlueprint, List<PopulatedEntity>> populatedEntities,
         PopulatedEntity parentPopulatedEntity,
@@ -251,21 +357,80 @@ public class PhotonAggregateSave
         }
         for(TableBlueprint tableBlueprint : entityBlueprint.getTableBlueprintsForInsertOrUpdate())
         {
+            List<PopulatedEntity> populatedEntitiesToInsert = new ArrayList<>();
+            List<PopulatedEntity> populatedEntitiesToInsertWithPrimaryKey = new ArrayList<>();
             for (PopulatedEntity populatedEntity : populatedEntities.get(tableBlueprint))
             {
                 if (!tableBlueprint.isApplicableForEntityClass(populatedEntity.getEntityInstance().getClass()))
                 {
                     continue;
                 }
-                String insertSql = tableBlueprint.getInsertSql();
-                boolean populateGeneratedKeys = tableBlueprint.getPrimaryKeyColumn().isAutoIncrementColumn();
-                boolean shouldInsertUsingPrimaryKeySql = tableBlueprint
-                    .shouldInsertUsingPrimaryKeySql(populatedEntity, tableBlueprint);
-                if (shouldInsertUsingPrimaryKeySql)
+                if (tableBlueprint.shouldInsertUsingPrimaryKeySql(populatedEntity, tableBlueprint))
                 {
-                    insertSql = tableBlueprint.getInsertWithPrimaryKeySql();
-                    populateGeneratedKeys = false;
+                    populatedEntitiesToInsertWithPrimaryKey.add(populatedEntity);
                 }
+                else
+                {
+                    populatedEntitiesToInsert.add(populatedEntity);
+                }
+            }
+
+            insertPopulatedEntitiesForTable(
+                populatedEntitiesToInsertWithPrimaryKey,
+                tableBlueprint,
+                tableBlueprint.getInsertWithPrimaryKeySql(),
+                false,
+                true,
+                parentPopulatedEntity,
+                parentFieldBlueprint);
+            insertPopulatedEntitiesForTable(
+                populatedEntitiesToInsert,
+                tableBlueprint,
+                tableBlueprint.getInsertSql(),
+                tableBlueprint.getPrimaryKeyColumn().isAutoIncrementColumn(),
+                false,
+                parentPopulatedEntity,
+                parentFieldBlueprint);
+        }
+    }
+
+    private void insertPopulatedEntitiesForTable(
+        List<PopulatedEntity> populatedEntities,
+        TableBlueprint tableBlueprint,
+        String insertSql,
+        boolean populateGeneratedKeys,
+        boolean alwaysIncludePrimaryKey,
+        PopulatedEntity parentPopulatedEntity,
+        FieldBlueprint parentFieldBlueprint)
+    {
+        if(populatedEntities.isEmpty())
+        {
+            return;
+        }
+
+        // Databases do not guarantee that a multi-row insert generates or returns keys in VALUES order, so entities with
+        // generated keys are inserted with single row statements that each return their own key.
+        if(populatedEntities.size() > 1 &&
+            !populateGeneratedKeys &&
+            photonOptions.isEnableMultiRowInserts())
+        {
+            insertPopulatedEntitiesMultiRow(
+                populatedEntities,
+                tableBlueprint,
+                alwaysIncludePrimaryKey,
+                parentPopulatedEntity,
+                parentFieldBlueprint);
+            return;
+        }
+
+        boolean useBatch = populatedEntities.size() > 1 &&
+            photonOptions.getBatchSize() > 1 &&
+            (!populateGeneratedKeys || photonOptions.isEnableBatchGeneratedKeys());
+
+        if(!useBatch)
+        {
+            for (PopulatedEntity populatedEntity : populatedEntities)
+            {
                 try (PhotonPreparedStatement insertStatement = new PhotonPreparedStatement(
                     insertSql,
                     populateGeneratedKeys,
@@ -273,8 +438,7 @@ public class PhotonAggregateSave
                     photonOptions))
                 {
                     List<ParameterValue> values = populatedEntity
-                        .getParameterValuesForInsert(tableBlueprint, parentPopulatedEntity,
-                            shouldInsertUsingPrimaryKeySql);
+                        .getParameterValuesForInsert(tableBlueprint, parentPopulatedEntity, alwaysIncludePrimaryKey);
                     insertStatement.setNextParameters(values);
                     insertStatement.executeInsert();
 
@@ -288,7 +452,109 @@ public class PhotonAggregateSave
                         populatedEntity,
                         tableBlueprint,
                         parentPopulatedEntity,
-                        parentFieldBlueprint
+                        parentFieldBlueprint,
+                        populateGeneratedKeys
+                    );
+                }
+            }
+            return;
+        }
+
+        try (PhotonPreparedStatement insertStatement = new PhotonPreparedStatement(
+            insertSql,
+            populateGeneratedKeys,
+            connection,
+            photonOptions))
+        {
+            int batchSize = photonOptions.getBatchSize();
+            for (int batchStart = 0; batchStart < populatedEntities.size(); batchStart += batchSize)
+            {
+                List<PopulatedEntity> batch = populatedEntities
+                    .subList(batchStart, Math.min(batchStart + batchSize, populatedEntities.size()));
+
+                for (PopulatedEntity populatedEntity : batch)
+                {
+                    List<ParameterValue> values = populatedEntity
+                        .getParameterValuesForInsert(tableBlueprint, parentPopulatedEntity, alwaysIncludePrimaryKey);
+                    insertStatement.setNextParameters(values);
+                    insertStatement.addToBatch();
+                }
+                insertStatement.executeBatch();
+
+                if (populateGeneratedKeys)
+                {
+                    List<Long> generatedKeys = insertStatement.getGeneratedKeys();
+                    if (generatedKeys.size() != batch.size())
+                    {
+                        throw new PhotonException(
+                            "Expected %s generated keys from batch insert into '%s' but got %s. Disable " +
+                                "enableBatchGeneratedKeys in the Photon options if the JDBC driver does not return " +
+                                "generated keys for batch inserts.",
+                            batch.size(),
+                            tableBlueprint.getTableName(),
+                            generatedKeys.size()
+                        );
+                    }
+                    for (int i = 0; i < batch.size(); i++)
+                    {
+                        batch.get(i).setPrimaryKeyValue(generatedKeys.get(i));
+                    }
+                }
+
+                for (PopulatedEntity populatedEntity : batch)
+                {
+                    updateTrackedValuesAndAddTrackedChild(
+                        populatedEntity,
+                        tableBlueprint,
+                        parentPopulatedEntity,
+                        parentFieldBlueprint,
+                        populateGeneratedKeys
+                    );
+                }
+            }
+        }
+    }
+
+    private void insertPopulatedEntitiesMultiRow(
+        List<PopulatedEntity> populatedEntities,
+        TableBlueprint tableBlueprint,
+        boolean alwaysIncludePrimaryKey,
+        PopulatedEntity parentPopulatedEntity,
+        FieldBlueprint parentFieldBlueprint)
+    {
+        int columnCount = Math.max(tableBlueprint.getColumnsForInsertStatement(alwaysIncludePrimaryKey).size(), 1);
+        int rowsPerStatement = Math.max(1, Math.min(
+            Math.min(photonOptions.getBatchSize(), MAX_ROWS_PER_MULTI_ROW_INSERT),
+            photonOptions.getMaxBindParameters() / columnCount));
+
+        for (int rowStart = 0; rowStart < populatedEntities.size(); rowStart += rowsPerStatement)
+        {
+            List<PopulatedEntity> rows = populatedEntities
+                .subList(rowStart, Math.min(rowStart + rowsPerStatement, populatedEntities.size()));
+            String insertSql = tableBlueprint.getMultiRowInsertSql(rows.size(), alwaysIncludePrimaryKey, photonOptions);
+
+            try (PhotonPreparedStatement insertStatement = new PhotonPreparedStatement(
+                insertSql,
+                false,
+                connection,
+                photonOptions))
+            {
+                for (PopulatedEntity populatedEntity : rows)
+                {
+                    insertStatement.setNextParameters(populatedEntity
+                        .getParameterValuesForInsert(tableBlueprint, parentPopulatedEntity, alwaysIncludePrimaryKey));
+                }
+
+                insertStatement.executeUpdate();
+
+                for (PopulatedEntity populatedEntity : rows)
+                {
+                    updateTrackedValuesAndAddTrackedChild(
+                        populatedEntity,
+                        tableBlueprint,
+                        parentPopulatedEntity,
+                        parentFieldBlueprint,
+                        false
                     );
                 }
             }
@@ -299,12 +565,16 @@ public class PhotonAggregateSave
         PopulatedEntity<?> populatedEntity,
         TableBlueprint tableBlueprint,
         PopulatedEntity<?> parentPopulatedEntity,
-        FieldBlueprint parentFieldBlueprint)
+        FieldBlueprint parentFieldBlueprint,
+        boolean isPrimaryKeyGenerated)
     {
-        photonEntityState.updateTrackedValues(
-            tableBlueprint,
-            populatedEntity.getPrimaryKey(),
-            populatedEntity.getParameterValuesForUpdate(tableBlueprint, parentPopulatedEntity, null).getValues());
+        // A snapshot taken before the insert is stale if the insert generated the primary key.
+        Object[] snapshot = populatedEntityArena.removeSnapshot(tableBlueprint, populatedEntity);
+        if(snapshot == null || isPrimaryKeyGenerated)
+        {
+            snapshot = populatedEntity.getParameterValuesForUpdate(tableBlueprint, parentPopulatedEntity, null).getSnapshot();
+        }
+        photonEntityState.updateTrackedValues(tableBlueprint, populatedEntity.getPrimaryKey(), snapshot);
         if(parentPopulatedEntity != null)
         {
             photonEntityState.addTrackedChild(
@@ -321,7 +591,8 @@ public class PhotonAggregateSave
         {
             for (FieldBlueprint fieldBlueprint : fieldsWithChildEntities)
             {
-                List<PopulatedEntity> fieldPopulatedEntities = populatedEntity.getChildPopulatedEntitiesForField(fieldBlueprint);
+                List<PopulatedEntity> fieldPopulatedEntities =
+                    populatedEntityArena.getChildPopulatedEntities(populatedEntity, fieldBlueprint);
 
                 for (PopulatedEntity fieldPopulatedEntity : fieldPopulatedEntities)
                 {
@@ -355,7 +626,7 @@ public class PhotonAggregateSave
                 if (CollectionUtils.isEmpty(existingValues))
                 {
                     existingValues = getExistingFlattenedCollectionValues(
-                            populatedEntity.getPrimaryKeyValue(),
+                            populatedEntity,
                             flattenedCollectionBlueprint);
                 }
                 if (existingValues == null)
@@ -368,16 +639,18 @@ public class PhotonAggregateSave
                 }
 
                 EntityBlueprint populatedEntityBlueprint = populatedEntity.getEntityBlueprint();
-                final Collection existingValuesFinal = existingValues;
+                final Set existingValuesFinal = new HashSet<>(existingValues);
 
+                // The values are kept in their original order for inserting, and in a set for checking what to delete.
                 final Collection valuesFinal = (Collection) values
                     .stream()
                     .distinct()
                     .collect(Collectors.toList());
+                final Set valuesSet = new HashSet<>(valuesFinal);
 
                 Collection valuesToDelete = (Collection) existingValues
                     .stream()
-                    .filter(value -> !valuesFinal.contains(value))
+                    .filter(value -> !valuesSet.contains(value))
                     .collect(Collectors.toList());
 
                 if(!valuesToDelete.isEmpty())
@@ -416,7 +689,7 @@ public class PhotonAggregateSave
     }
 
     private Collection getExistingFlattenedCollectionValues(
-        Object id,
+        PopulatedEntity populatedEntity,
         FlattenedCollectionBlueprint flattenedCollectionBlueprint)
     {
         Collection exitingValues = new ArrayList();
@@ -424,13 +697,15 @@ public class PhotonAggregateSave
 
         try (PhotonPreparedStatement statement = new PhotonPreparedStatement(flattenedCollectionBlueprint.getSelectSql(), false, connection, photonOptions))
         {
-            statement.setNextArrayParameter(Collections.singletonList(id), flattenedCollectionBlueprint.getColumnDataType(), null);
-            photonQueryResultRows = statement.executeQuery(
-                flattenedCollectionBlueprint.getSelectColumnNames(),
-                flattenedCollectionBlueprint.getSelectColumnNamesLowerCase());
+            TableBlueprint tableBlueprint = populatedEntity.getEntityBlueprint().getTableBlueprint();
+            statement.setNextArrayParameter(
+                Collections.singletonList(populatedEntity.getPrimaryKeyValue()),
+                tableBlueprint.getPrimaryKeyColumn().getColumnDataType(),
+                tableBlueprint.getPrimaryKeyColumnSerializer());
+            photonQueryResultRows = statement.executeQuery(flattenedCollectionBlueprint.getSelectRowReader());
         }
 
-        Converter valueConverter = Convert.getConverterIfExists(flattenedCollectionBlueprint.getFieldClass());
+        Converter valueConverter = flattenedCollectionBlueprint.getValueConverter();
 
         for(PhotonQueryResultRow photonQueryResultRow : photonQueryResultRows)
         {
@@ -1,8 +1,9 @@
 package com.github.molcikas.photon.query;
 
 import com.github.molcikas.photon.blueprints.table.ColumnDataType;
-import com.github.molcikas.photon.converters.Convert;
 import com.github.molcikas.photon.converters.Converter;
+import com.github.molcikas.photon.converters.ResolvedConverter;
+import com.github.molcikas.photon.datasource.StatementCachingConnection;
 import com.github.molcikas.photon.exceptions.PhotonException;
 import com.github.molcikas.photon.options.PhotonOptions;
 import edu.umd.cs.findbugs.annotations.SuppressWarnings;
@@ -12,14 +13,43 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.Closeable;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 public class PhotonPreparedStatement implements Closeable
 {
+    // The converter used to serialize parameter values for each data type, or no entry if values of that data type are
+    // passed to JDBC as-is.
+    private static final Map<ColumnDataType, ResolvedConverter> serializers = new EnumMap<>(ColumnDataType.class);
+
+    private static final Set<Class<?>> passThroughClasses = new HashSet<>(Arrays.asList(
+        Boolean.class, Integer.class, Long.class, Float.class, Double.class, String.class));
+
+    static
+    {
+        for(ColumnDataType dataType : ColumnDataType.values())
+        {
+            Class<?> serializedClass = getSerializedClass(dataType);
+            if(serializedClass != null)
+            {
+                serializers.put(dataType, new ResolvedConverter(serializedClass));
+            }
+        }
+    }
+
     private final Connection connection;
     private final String originalSqlText;
     private final boolean populateGeneratedKeys;
@@ -31,6 +61,19 @@ public class PhotonPreparedStatement implements Closeable
 
     private boolean isBatched = false;
 
+    // When an array parameter has more values than the database allows in one statement, the statement is executed
+    // once for each chunk of values. These track where the chunked values are in the SQL text and parameter list.
+    private List<ParameterValue> splitArrayValues;
+    private int splitArrayParameterIndex;
+    private int splitArraySqlIndex;
+    private int splitArraySqlLength;
+    private int splitArrayChunkSize;
+
+    private ResultSet openResultSet;
+    private boolean resetFetchSize = false;
+    private boolean resetMaxRows = false;
+    private boolean restoreAutoCommit = false;
+
     public PhotonPreparedStatement(String sqlText, boolean populateGeneratedKeys, Connection connection, PhotonOptions photonOptions)
     {
         this.connection = connection;
@@ -46,7 +89,9 @@ public class PhotonPreparedStatement implements Closeable
     {
         if(photonSqlParameter.isCollection())
         {
-            setNextArrayParameter((Collection) photonSqlParameter.getValue(), photonSqlParameter.getDataType(), null);
+            // The SQL is written by the caller, so the list is expanded exactly as given rather than being padded
+            // or split into multiple executions.
+            setNextArrayParameter((Collection) photonSqlParameter.getValue(), photonSqlParameter.getDataType(), null, false);
         }
         else
         {
@@ -54,7 +99,22 @@ public class PhotonPreparedStatement implements Closeable
         }
     }
 
+    /**
+     * Expands the next parameter into a list of parameters for an IN clause. The list is padded to a power of two
+     * size by repeating the last value so that the number of distinct SQL texts stays small. If the list is larger
+     * than the database allows, the statement is executed once for each chunk of the list and the results are merged.
+     * If array parameters are enabled, the values are instead bound as a single JDBC array.
+     *
+     * @param values - the values for the IN clause
+     * @param dataType - the data type of the values
+     * @param customSerializer - the custom serializer for the values, or null
+     */
     public void setNextArrayParameter(Collection values, ColumnDataType dataType, Converter customSerializer)
+    {
+        setNextArrayParameter(values, dataType, customSerializer, true);
+    }
+
+    private void setNextArrayParameter(Collection values, ColumnDataType dataType, Converter customSerializer, boolean canPadAndSplit)
     {
         if(isBatched)
         {
@@ -69,7 +129,12 @@ public class PhotonPreparedStatement implements Closeable
             // Clever hack to get around SQL not liking empty IN() queries
             newTextForQuestionMark = "SELECT 1 FROM (SELECT 1) t WHERE 1=0";
         }
-        else
+        else if(canPadAndSplit && photonOptions.isEnableArrayParameters())
+        {
+            parameterValues.add(new ParameterValue(createArray(values, dataType, customSerializer), ColumnDataType.ARRAY, null));
+            return;
+        }
+        else if(!canPadAndSplit)
         {
             newTextForQuestionMark = getQuestionMarks(values.size());
 
@@ -78,6 +143,60 @@ public class PhotonPreparedStatement implements Closeable
                 setNextParameter(value, dataType, customSerializer);
             }
         }
+        else
+        {
+            List<ParameterValue> arrayValues = new ArrayList<>(values.size());
+            for (Object value : values)
+            {
+                arrayValues.add(new ParameterValue(value, dataType, customSerializer));
+            }
+
+            int otherParameterCount =
+                parameterValues.size() + StringUtils.countMatches(sqlText.substring(questionMarkIndex + 1), "?");
+            int maxArraySize = Math.max(1, Math.min(
+                photonOptions.getMaxInListSize(),
+                photonOptions.getMaxBindParameters() - otherParameterCount));
+
+            if(arrayValues.size() > maxArraySize && new HashSet<>(values).size() < values.size())
+            {
+                // Duplicate values in different chunks would return the same rows more than once.
+                arrayValues = new ArrayList<>(values.size());
+                for (Object value : new LinkedHashSet<Object>(values))
+                {
+                    arrayValues.add(new ParameterValue(value, dataType, customSerializer));
+                }
+            }
+
+            if(arrayValues.size() > maxArraySize)
+            {
+                if(splitArrayValues != null)
+                {
+                    throw new PhotonException(
+                        "Cannot split more than one array parameter into multiple executions. Sql: \n%s",
+                        originalSqlText
+                    );
+                }
+                splitArrayValues = arrayValues;
+                splitArrayParameterIndex = parameterValues.size();
+                splitArraySqlIndex = questionMarkIndex;
+                splitArrayChunkSize = maxArraySize;
+                arrayValues = arrayValues.subList(0, maxArraySize);
+            }
+
+            arrayValues = padToBucketSize(arrayValues, maxArraySize);
+            newTextForQuestionMark = getQuestionMarks(arrayValues.size());
+            parameterValues.addAll(arrayValues);
+
+            if(splitArrayValues != null && splitArraySqlIndex == questionMarkIndex)
+            {
+                splitArraySqlLength = newTextForQuestionMark.length();
+            }
+        }
+
+        if(splitArrayValues != null && questionMarkIndex < splitArraySqlIndex)
+        {
+            splitArraySqlIndex += newTextForQuestionMark.length() - 1;
+        }
 
         StringBuilder newSqlText = new StringBuilder(sqlText.length() + newTextForQuestionMark.length());
         if (questionMarkIndex > 0)
@@ -171,6 +290,13 @@ public class PhotonPreparedStatement implements Closeable
 
     public List<PhotonQueryResultRow> executeQuery()
     {
+        if(splitArrayValues != null)
+        {
+            List<PhotonQueryResultRow> resultRows = new ArrayList<>(100);
+            executeForEachSplitArrayChunk(statement -> resultRows.addAll(statement.executeQuery()));
+            return resultRows;
+        }
+
         List<PhotonQueryResultRow> resultRows = new ArrayList<>(100);
 
         prepareStatement();
@@ -179,19 +305,11 @@ public class PhotonPreparedStatement implements Closeable
 
         try(ResultSet resultSet = preparedStatement.executeQuery())
         {
-            ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+            PhotonRowReader rowReader = PhotonRowReader.forAllColumns(resultSet.getMetaData());
+            int[] columnIndexes = rowReader.getColumnIndexes(sqlText, resultSet);
             while (resultSet.next())
             {
-                PhotonQueryResultRow row = new PhotonQueryResultRow();
-                for (int c = 1; c <= resultSetMetaData.getColumnCount(); c++)
-                {
-                    Object value = resultSet.getObject(c);
-                    if (value != null)
-                    {
-                        row.addValue(resultSetMetaData.getColumnLabel(c), value);
-                    }
-                }
-                resultRows.add(row);
+                resultRows.add(rowReader.readRow(resultSet, columnIndexes));
             }
         }
         catch(Exception ex)
@@ -208,40 +326,132 @@ public class PhotonPreparedStatement implements Closeable
 
     public List<PhotonQueryResultRow> executeQuery(List<String> columnNames, List<String> columnNamesLowerCase)
     {
-        List<PhotonQueryResultRow> resultRows = new ArrayList<>(100);
+        return executeQuery(new PhotonRowReader(columnNames, columnNamesLowerCase));
+    }
+
+    /**
+     * Executes the query and reads each row with the row reader.
+     *
+     * @param rowReader - the row reader for the columns to read
+     * @return - the result rows
+     */
+    public List<PhotonQueryResultRow> executeQuery(PhotonRowReader rowReader)
+    {
+        return executeQuery(rowReader, 0);
+    }
+
+    /**
+     * Executes the query and reads each row with the row reader, stopping after a maximum number of rows.
+     *
+     * @param rowReader - the row reader for the columns to read
+     * @param maxRows - the maximum number of rows to read, or 0 for no limit
+     * @return - the result rows
+     */
+    public List<PhotonQueryResultRow> executeQuery(PhotonRowReader rowReader, int maxRows)
+    {
+        if(splitArrayValues != null)
+        {
+            if(maxRows > 0)
+            {
+                throw new PhotonException(
+                    "Cannot limit the rows of a query that is split into multiple executions. Sql: \n%s",
+                    originalSqlText
+                );
+            }
+            List<PhotonQueryResultRow> resultRows = new ArrayList<>(100);
+            executeForEachSplitArrayChunk(statement -> resultRows.addAll(statement.executeQuery(rowReader)));
+            return resultRows;
+        }
+
+        List<PhotonQueryResultRow> resultRows = new ArrayList<>(maxRows > 0 ? maxRows : 100);
 
         prepareStatement();
 
         logQuery(null);
 
-        try(ResultSet resultSet = preparedStatement.executeQuery())
+        try
         {
-            ResultSetMetaData metaData = resultSet.getMetaData();
-            List<String> resultColumnsLowerCase = new ArrayList<>(metaData.getColumnCount());
-            for(int i = 1; i <= metaData.getColumnCount(); i++)
+            if(maxRows > 0)
             {
-                resultColumnsLowerCase.add(metaData.getColumnLabel(i).toLowerCase());
+                preparedStatement.setMaxRows(maxRows);
+                resetMaxRows = true;
             }
 
-            while (resultSet.next())
+            try(ResultSet resultSet = preparedStatement.executeQuery())
             {
-                PhotonQueryResultRow row = new PhotonQueryResultRow();
-                for(int i = 0; i < columnNames.size(); i++)
+                int[] columnIndexes = rowReader.getColumnIndexes(sqlText, resultSet);
+
+                while (resultSet.next())
                 {
-                    String columnName = columnNames.get(i);
-                    String columnNameLowerCase = columnNamesLowerCase.get(i);
+                    resultRows.add(rowReader.readRow(resultSet, columnIndexes));
+                }
+            }
+        }
+        catch(Exception ex)
+        {
+            throw new PhotonException(
+                ex,
+                "Error executing query for statement with SQL:\n%s",
+                originalSqlText
+            );
+        }
+
+        return resultRows;
+    }
+
+    /**
+     * Executes a SQL text containing multiple select statements and reads each result set with the row reader at the
+     * same position. The database must support multiple statements in a single prepared statement.
+     *
+     * @param rowReaders - the row readers, one for each select statement in order
+     * @return - the result rows of each select statement
+     */
+    public List<List<PhotonQueryResultRow>> executeQueries(List<PhotonRowReader> rowReaders)
+    {
+        if(splitArrayValues != null)
+        {
+            throw new PhotonException(
+                "Cannot split an array parameter for a statement with multiple result sets. Sql: \n%s",
+                originalSqlText
+            );
+        }
 
-                    if(!resultColumnsLowerCase.contains(columnNameLowerCase))
+        List<List<PhotonQueryResultRow>> results = new ArrayList<>(rowReaders.size());
+
+        prepareStatement();
+
+        logQuery("multiple result set");
+
+        try
+        {
+            boolean isResultSet = preparedStatement.execute();
+            for(PhotonRowReader rowReader : rowReaders)
+            {
+                while(!isResultSet)
+                {
+                    if(preparedStatement.getUpdateCount() == -1)
                     {
-                        continue;
+                        throw new PhotonException(
+                            "Expected %s result sets but only %s were returned.",
+                            rowReaders.size(),
+                            results.size()
+                        );
                     }
-                    Object value = resultSet.getObject(columnName);
-                    if (value != null)
+                    isResultSet = preparedStatement.getMoreResults();
+                }
+
+                List<PhotonQueryResultRow> resultRows = new ArrayList<>(100);
+                try(ResultSet resultSet = preparedStatement.getResultSet())
+                {
+                    int[] columnIndexes = rowReader.getColumnIndexes(sqlText, resultSet);
+                    while (resultSet.next())
                     {
-                        row.addValue(columnName, value);
+                        resultRows.add(rowReader.readRow(resultSet, columnIndexes));
                     }
                 }
-                resultRows.add(row);
+                results.add(resultRows);
+
+                isResultSet = preparedStatement.getMoreResults();
             }
         }
         catch(Exception ex)
@@ -253,11 +463,117 @@ public class PhotonPreparedStatement implements Closeable
             );
         }
 
-        return resultRows;
+        return results;
+    }
+
+    /**
+     * Executes the query and returns an iterator that reads rows from the result set as they are requested, so that
+     * the entire result is never held in memory. The result set stays open until this statement is closed.
+     *
+     * @param rowReader - the row reader for the columns to read
+     * @param fetchSize - the JDBC fetch size
+     * @return - an iterator over the result rows
+     */
+    public Iterator<PhotonQueryResultRow> executeQueryIterator(PhotonRowReader rowReader, int fetchSize)
+    {
+        if(splitArrayValues != null)
+        {
+            throw new PhotonException(
+                "Cannot stream the results of a query that is split into multiple executions. Sql: \n%s",
+                originalSqlText
+            );
+        }
+
+        try
+        {
+            if(photonOptions.isDisableAutoCommitWhenStreaming() && connection.getAutoCommit())
+            {
+                connection.setAutoCommit(false);
+                restoreAutoCommit = true;
+            }
+        }
+        catch(Exception ex)
+        {
+            throw new PhotonException(ex, "Error disabling auto commit for streaming SQL:\n%s", originalSqlText);
+        }
+
+        prepareStatement();
+
+        logQuery(null);
+
+        try
+        {
+            preparedStatement.setFetchSize(fetchSize);
+            resetFetchSize = true;
+            openResultSet = preparedStatement.executeQuery();
+            ResultSet resultSet = openResultSet;
+            int[] columnIndexes = rowReader.getColumnIndexes(sqlText, resultSet);
+
+            return new Iterator<PhotonQueryResultRow>()
+            {
+                private PhotonQueryResultRow nextRow;
+                private boolean isDone;
+
+                @Override
+                public boolean hasNext()
+                {
+                    if(nextRow == null && !isDone)
+                    {
+                        try
+                        {
+                            if(resultSet.next())
+                            {
+                                nextRow = rowReader.readRow(resultSet, columnIndexes);
+                            }
+                            else
+                            {
+                                isDone = true;
+                            }
+                        }
+                        catch(Exception ex)
+                        {
+                            throw new PhotonException(
+                                ex,
+                                "Error reading query results for statement with SQL:\n%s",
+                                originalSqlText
+                            );
+                        }
+                    }
+                    return nextRow != null;
+                }
+
+                @Override
+                public PhotonQueryResultRow next()
+                {
+                    if(!hasNext())
+                    {
+                        throw new NoSuchElementException();
+                    }
+                    PhotonQueryResultRow row = nextRow;
+                    nextRow = null;
+                    return row;
+                }
+            };
+        }
+        catch(Exception ex)
+        {
+            throw new PhotonException(
+                ex,
+                "Error executing query for statement with SQL:\n%s",
+                originalSqlText
+            );
+        }
     }
 
     public int executeUpdate()
     {
+        if(splitArrayValues != null)
+        {
+            int[] rowsUpdated = new int[1];
+            executeForEachSplitArrayChunk(statement -> rowsUpdated[0] += statement.executeUpdate());
+            return rowsUpdated[0];
+        }
+
         prepareStatement();
 
         try
@@ -308,16 +624,67 @@ public class PhotonPreparedStatement implements Closeable
     @Override
     public void close()
     {
+        if(openResultSet != null)
+        {
+            try
+            {
+                openResultSet.close();
+            }
+            catch(Exception ex)
+            {
+                // Suppress errors related to closing.
+            }
+            openResultSet = null;
+        }
+
         if(preparedStatement != null)
         {
             try
             {
-                preparedStatement.close();
+                if(resetFetchSize)
+                {
+                    // Cached statements are reused by other queries, which should not inherit the streaming fetch size.
+                    preparedStatement.setFetchSize(0);
+                }
+                if(resetMaxRows)
+                {
+                    preparedStatement.setMaxRows(0);
+                }
+            }
+            catch(Exception ex)
+            {
+                // Suppress errors related to closing.
+            }
+
+            try
+            {
+                if(connection instanceof StatementCachingConnection)
+                {
+                    ((StatementCachingConnection) connection).releaseStatement(preparedStatement);
+                }
+                else
+                {
+                    preparedStatement.close();
+                }
             }
             catch(Exception ex)
             {
                 // Suppress errors related to closing.
             }
+            preparedStatement = null;
+        }
+
+        if(restoreAutoCommit)
+        {
+            try
+            {
+                connection.setAutoCommit(true);
+            }
+            catch(Exception ex)
+            {
+                throw new PhotonException(ex, "Error restoring auto commit after streaming SQL:\n%s", originalSqlText);
+            }
+            restoreAutoCommit = false;
         }
     }
 
@@ -359,46 +726,66 @@ public class PhotonPreparedStatement implements Closeable
             return parameterValue.getRawValue();
         }
 
-        Class<?> toClass;
+        ResolvedConverter serializer = serializers.get(parameterValue.getDataType());
+        if(serializer == null)
+        {
+            return parameterValue.getRawValue();
+        }
+
+        Object rawValue = parameterValue.getRawValue();
+        if(parameterValue.getCustomSerializer() == null &&
+            passThroughClasses.contains(rawValue.getClass()) &&
+            serializer.getConvertedClass() == rawValue.getClass() &&
+            serializer.isDefault())
+        {
+            // The default converters return values of these classes unchanged, so skip the conversion.
+            return rawValue;
+        }
+
+        Converter converter = parameterValue.getCustomSerializer() != null ?
+            parameterValue.getCustomSerializer() :
+            serializer.get();
+
+        if(converter == null)
+        {
+            throw new PhotonException("No converter found for class '%s'.", serializer.getConvertedClass().getName());
+        }
+
+        return converter.convert(parameterValue.getRawValue());
+    }
 
-        switch (parameterValue.getDataType())
+    private static Class<?> getSerializedClass(ColumnDataType dataType)
+    {
+        switch (dataType)
         {
             case BIT:
             case BOOLEAN:
-                toClass = Boolean.class;
-                break;
+                return Boolean.class;
             case TINYINT:
             case SMALLINT:
             case INTEGER:
-                toClass = Integer.class;
-                break;
+                return Integer.class;
             case BIGINT:
-                toClass = Long.class;
-                break;
+                return Long.class;
             case FLOAT:
-                toClass = Float.class;
-                break;
+                return Float.class;
             case REAL:
             case DOUBLE:
             case NUMERIC:
             case DECIMAL:
-                toClass = Double.class;
-                break;
+                return Double.class;
             case CHAR:
             case VARCHAR:
             case LONGVARCHAR:
-                toClass = String.class;
-                break;
+                return String.class;
             case DATE:
             case TIME:
             case TIMESTAMP:
-                toClass = Timestamp.class;
-                break;
+                return Timestamp.class;
             case BINARY:
             case VARBINARY:
             case LONGVARBINARY:
-                toClass = byte[].class;
-                break;
+                return byte[].class;
             case NULL:
             case OTHER:
             case JAVA_OBJECT:
@@ -410,19 +797,145 @@ public class PhotonPreparedStatement implements Closeable
             case REF:
             case DATALINK:
             default:
-                return parameterValue.getRawValue();
+                return null;
         }
+    }
 
-        Converter converter = parameterValue.getCustomSerializer() != null ?
-            parameterValue.getCustomSerializer() :
-            Convert.getConverterIfExists(toClass);
+    private Array createArray(Collection values, ColumnDataType dataType, Converter customSerializer)
+    {
+        Object[] elements = new Object[values.size()];
+        int i = 0;
+        for(Object value : values)
+        {
+            elements[i++] = toArrayElement(convertValue(new ParameterValue(value, dataType, customSerializer)), dataType);
+        }
 
-        if(converter == null)
+        try
+        {
+            return connection.createArrayOf(getArrayTypeName(dataType, elements), elements);
+        }
+        catch(Exception ex)
         {
-            throw new PhotonException("No converter found for class '%s'.", toClass.getName());
+            throw new PhotonException(ex, "Error creating array parameter for SQL: \n%s", originalSqlText);
         }
+    }
 
-        return converter.convert(parameterValue.getRawValue());
+    private static Object toArrayElement(Object value, ColumnDataType dataType)
+    {
+        // Dates and times are serialized as timestamps. Narrow them so the array text matches the date or time array type.
+        if(value instanceof Timestamp && dataType == ColumnDataType.DATE)
+        {
+            return new Date(((Timestamp) value).getTime());
+        }
+        if(value instanceof Timestamp && dataType == ColumnDataType.TIME)
+        {
+            return new Time(((Timestamp) value).getTime());
+        }
+        return value;
+    }
+
+    private static String getArrayTypeName(ColumnDataType dataType, Object[] elements)
+    {
+        if(dataType != null)
+        {
+            switch (dataType)
+            {
+                case BIT:
+                case BOOLEAN:
+                    return "boolean";
+                case TINYINT:
+                case SMALLINT:
+                    return "smallint";
+                case INTEGER:
+                    return "integer";
+                case BIGINT:
+                    return "bigint";
+                case FLOAT:
+                case REAL:
+                    return "real";
+                case DOUBLE:
+                    return "float8";
+                case NUMERIC:
+                case DECIMAL:
+                    return "numeric";
+                case CHAR:
+                case VARCHAR:
+                case LONGVARCHAR:
+                    return "varchar";
+                case DATE:
+                    return "date";
+                case TIME:
+                    return "time";
+                case TIMESTAMP:
+                    return "timestamp";
+                case BINARY:
+                case VARBINARY:
+                case LONGVARBINARY:
+                    return "bytea";
+            }
+        }
+
+        // Without a data type, the values are bound as is, so use their class to determine the array type.
+        Object firstValue = Arrays.stream(elements).filter(e -> e != null).findFirst().orElse(null);
+        if(firstValue instanceof UUID)
+        {
+            return "uuid";
+        }
+        if(firstValue instanceof Long)
+        {
+            return "bigint";
+        }
+        if(firstValue instanceof Number)
+        {
+            return "integer";
+        }
+        return "varchar";
+    }
+
+    private void executeForEachSplitArrayChunk(Consumer<PhotonPreparedStatement> execute)
+    {
+        String sqlPrefix = sqlText.substring(0, splitArraySqlIndex);
+        String sqlSuffix = sqlText.substring(splitArraySqlIndex + splitArraySqlLength);
+        List<ParameterValue> parameterValuesBefore = parameterValues.subList(0, splitArrayParameterIndex);
+        List<ParameterValue> parameterValuesAfter =
+            parameterValues.subList(splitArrayParameterIndex + splitArrayChunkSize, parameterValues.size());
+
+        for(int chunkStart = 0; chunkStart < splitArrayValues.size(); chunkStart += splitArrayChunkSize)
+        {
+            List<ParameterValue> chunk = padToBucketSize(
+                splitArrayValues.subList(chunkStart, Math.min(chunkStart + splitArrayChunkSize, splitArrayValues.size())),
+                splitArrayChunkSize);
+
+            try(PhotonPreparedStatement statement = new PhotonPreparedStatement(
+                sqlPrefix + getQuestionMarks(chunk.size()) + sqlSuffix,
+                false,
+                connection,
+                photonOptions))
+            {
+                statement.setNextParameters(parameterValuesBefore);
+                statement.setNextParameters(chunk);
+                statement.setNextParameters(parameterValuesAfter);
+                execute.accept(statement);
+            }
+        }
+    }
+
+    private static List<ParameterValue> padToBucketSize(List<ParameterValue> values, int maxSize)
+    {
+        int bucketSize = Math.min(Integer.highestOneBit(values.size() - 1) << 1, maxSize);
+        if(values.size() == 1 || bucketSize <= values.size())
+        {
+            return values;
+        }
+
+        List<ParameterValue> paddedValues = new ArrayList<>(bucketSize);
+        paddedValues.addAll(values);
+        ParameterValue lastValue = values.get(values.size() - 1);
+        while(paddedValues.size() < bucketSize)
+        {
+            paddedValues.add(lastValue);
+        }
+        return paddedValues;
     }
 
     private String getQuestionMarks(int count)
@@ -491,6 +1004,12 @@ public class PhotonPreparedStatement implements Closeable
                     continue;
                 }
 
+                if (parameterValue.getRawValue() instanceof Array)
+                {
+                    preparedStatement.setArray(parameterIndex, (Array) parameterValue.getRawValue());
+                    continue;
+                }
+
                 switch (parameterValue.getDataType())
                 {
                     case BIT:
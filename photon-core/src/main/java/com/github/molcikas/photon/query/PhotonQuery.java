@@ -14,9 +14,12 @@ import org.apache.commons.lang3.StringUtils;
 import java.lang.reflect.Field;
 import java.sql.Connection;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class PhotonQuery
 {
@@ -149,8 +152,11 @@ public class PhotonQuery
      */
     public <T> T fetchScalar(Class<T> scalarClass)
     {
-        PhotonPreparedStatement photonPreparedStatement = prepareStatement();
-        List<PhotonQueryResultRow> results = photonPreparedStatement.executeQuery();
+        List<PhotonQueryResultRow> results;
+        try(PhotonPreparedStatement photonPreparedStatement = prepareStatement())
+        {
+            results = photonPreparedStatement.executeQuery();
+        }
         if(results.isEmpty())
         {
             return null;
@@ -173,8 +179,11 @@ public class PhotonQuery
      */
     public <T> List<T> fetchScalarList(Class<T> scalarClass)
     {
-        PhotonPreparedStatement photonPreparedStatement = prepareStatement();
-        List<PhotonQueryResultRow> results = photonPreparedStatement.executeQuery();
+        List<PhotonQueryResultRow> results;
+        try(PhotonPreparedStatement photonPreparedStatement = prepareStatement())
+        {
+            results = photonPreparedStatement.executeQuery();
+        }
         if(results.isEmpty())
         {
             return Collections.emptyList();
@@ -212,28 +221,13 @@ public class PhotonQuery
      */
     public <T> List<T> fetchList(Class<T> classToFetch)
     {
-        PhotonPreparedStatement photonPreparedStatement = prepareStatement();
+        EntityBlueprint entityBlueprint = buildEntityBlueprint(classToFetch);
 
-        EntityBlueprintBuilder entityBlueprintBuilder = new EntityBlueprintBuilder(classToFetch, photon);
-        entityBlueprintBuilder.withClassDiscriminator(entityClassDiscriminator);
-
-        for(MappedClassBlueprint blueprint : mappedClasses)
+        List<PhotonQueryResultRow> rows;
+        try(PhotonPreparedStatement photonPreparedStatement = prepareStatement())
         {
-            entityBlueprintBuilder.withMappedClass(
-                blueprint.getMappedClass(),
-                blueprint.getIncludedFields().stream().map(Field::getName).collect(Collectors.toList())
-            );
-        }
-
-        for(Map.Entry<String, Converter> entry : customFieldHydraters.entrySet())
-        {
-            entityBlueprintBuilder.withFieldHydrater(entry.getKey(), entry.getValue());
+            rows = photonPreparedStatement.executeQuery(entityBlueprint.getRowReader(false));
         }
-
-        EntityBlueprint entityBlueprint = entityBlueprintBuilder.build();
-
-        List<PhotonQueryResultRow> rows = photonPreparedStatement
-            .executeQuery(entityBlueprint.getAllColumnNames(), entityBlueprint.getAllColumnNamesLowerCase());
         List<PopulatedEntity<T>> populatedEntities = rows
             .stream()
             .map(r -> new PopulatedEntity<T>(entityBlueprint, r, false))
@@ -245,6 +239,69 @@ public class PhotonQuery
             .collect(Collectors.toList());
     }
 
+    /**
+     * Executes the query and returns a stream of the results with each row mapped to the specified class. Rows are
+     * read from the database as the stream is consumed, so the entire result is never held in memory. The stream
+     * must be closed (e.g. with try-with-resources) to close the underlying result set. The fetch size is
+     * PhotonOptions.streamingFetchSize.
+     *
+     * @param classToFetch - The class to map the results into
+     * @param <T> - The class to map the results into
+     * @return - A stream of instances of the class with the values in the result set
+     */
+    public <T> Stream<T> fetchStream(Class<T> classToFetch)
+    {
+        return fetchStream(classToFetch, photon.getOptions().getStreamingFetchSize());
+    }
+
+    /**
+     * Executes the query and returns a stream of the results with each row mapped to the specified class. Rows are
+     * read from the database as the stream is consumed, so the entire result is never held in memory. The stream
+     * must be closed (e.g. with try-with-resources) to close the underlying result set.
+     *
+     * @param classToFetch - The class to map the results into
+     * @param fetchSize - The number of rows to fetch from the database at a time
+     * @param <T> - The class to map the results into
+     * @return - A stream of instances of the class with the values in the result set
+     */
+    public <T> Stream<T> fetchStream(Class<T> classToFetch, int fetchSize)
+    {
+        EntityBlueprint entityBlueprint = buildEntityBlueprint(classToFetch);
+
+        PhotonPreparedStatement photonPreparedStatement = prepareStatement();
+        Iterator<PhotonQueryResultRow> rows;
+        try
+        {
+            rows = photonPreparedStatement.executeQueryIterator(entityBlueprint.getRowReader(false), fetchSize);
+        }
+        catch(RuntimeException ex)
+        {
+            photonPreparedStatement.close();
+            throw ex;
+        }
+
+        return StreamSupport
+            .stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .map(r -> new PopulatedEntity<T>(entityBlueprint, r, false).getEntityInstance())
+            .onClose(photonPreparedStatement::close);
+    }
+
+    /**
+     * Executes the query and calls the consumer for each row mapped to the specified class. Rows are read from the
+     * database one at a time, so the entire result is never held in memory.
+     *
+     * @param classToFetch - The class to map the results into
+     * @param consumer - The consumer that is called for each instance
+     * @param <T> - The class to map the results into
+     */
+    public <T> void forEach(Class<T> classToFetch, Consumer<T> consumer)
+    {
+        try(Stream<T> stream = fetchStream(classToFetch))
+        {
+            stream.forEach(consumer);
+        }
+    }
+
     /**
      * Executes the query and returns the number of rows updated.
      *
@@ -252,8 +309,10 @@ public class PhotonQuery
      */
     public int executeUpdate()
     {
-        PhotonPreparedStatement photonPreparedStatement = prepareStatement();
-        return photonPreparedStatement.executeUpdate();
+        try(PhotonPreparedStatement photonPreparedStatement = prepareStatement())
+        {
+            return photonPreparedStatement.executeUpdate();
+        }
     }
 
     /**
@@ -263,13 +322,15 @@ public class PhotonQuery
      */
     public int executeInsert()
     {
-        PhotonPreparedStatement photonPreparedStatement = prepareStatement();
-        int rowsUpdated = photonPreparedStatement.executeInsert();
-        if(populateGeneratedKeys)
+        try(PhotonPreparedStatement photonPreparedStatement = prepareStatement())
         {
-            generatedKeys = photonPreparedStatement.getGeneratedKeys();
+            int rowsUpdated = photonPreparedStatement.executeInsert();
+            if(populateGeneratedKeys)
+            {
+                generatedKeys = photonPreparedStatement.getGeneratedKeys();
+            }
+            return rowsUpdated;
         }
-        return rowsUpdated;
     }
 
     /**
@@ -295,6 +356,38 @@ public class PhotonQuery
         return sqlText.replaceAll(parameterRegex, "?");
     }
 
+    private <T> EntityBlueprint buildEntityBlueprint(Class<T> classToFetch)
+    {
+        return photon.getEntityBlueprintCache().getOrBuild(
+            classToFetch,
+            entityClassDiscriminator,
+            mappedClasses,
+            customFieldHydraters,
+            () -> buildUncachedEntityBlueprint(classToFetch)
+        );
+    }
+
+    private <T> EntityBlueprint buildUncachedEntityBlueprint(Class<T> classToFetch)
+    {
+        EntityBlueprintBuilder entityBlueprintBuilder = new EntityBlueprintBuilder(classToFetch, photon);
+        entityBlueprintBuilder.withClassDiscriminator(entityClassDiscriminator);
+
+        for(MappedClassBlueprint blueprint : mappedClasses)
+        {
+            entityBlueprintBuilder.withMappedClass(
+                blueprint.getMappedClass(),
+                blueprint.getIncludedFields().stream().map(Field::getName).collect(Collectors.toList())
+            );
+        }
+
+        for(Map.Entry<String, Converter> entry : customFieldHydraters.entrySet())
+        {
+            entityBlueprintBuilder.withFieldHydrater(entry.getKey(), entry.getValue());
+        }
+
+        return entityBlueprintBuilder.build();
+    }
+
     private PhotonPreparedStatement prepareStatement()
     {
         PhotonPreparedStatement photonPreparedStatement = new PhotonPreparedStatement(
@@ -1,46 +1,68 @@
 package com.github.molcikas.photon.query;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 public class PhotonQueryResultRow
 {
-    private final Map<String, Object> values;
-    private Object firstValue;
+    private final PhotonRowReader rowReader;
+    private final Object[] values;
 
-    public void addValue(String columnName, Object value)
+    public PhotonQueryResultRow(PhotonRowReader rowReader, Object[] values)
     {
-        if(values.isEmpty())
-        {
-            firstValue = value;
-        }
-        values.put(columnName, value);
+        this.rowReader = rowReader;
+        this.values = values;
+    }
+
+    public PhotonRowReader getRowReader()
+    {
+        return rowReader;
+    }
+
+    public Object getValue(int slot)
+    {
+        return values[slot];
     }
 
     public Object getValue(String columnName)
     {
-        return values.get(columnName);
+        int slot = rowReader.getSlot(columnName);
+        return slot >= 0 ? values[slot] : null;
     }
 
     public Set<Map.Entry<String, Object>> getValues()
     {
-        return values.entrySet();
+        return getValuesMap().entrySet();
     }
 
     public Map<String, Object> getValuesMap()
     {
-        return Collections.unmodifiableMap(values);
+        Map<String, Object> valuesMap = new LinkedHashMap<>();
+        for(int slot = 0; slot < values.length; slot++)
+        {
+            if(values[slot] != null)
+            {
+                valuesMap.putIfAbsent(rowReader.getColumnName(slot), values[slot]);
+            }
+        }
+        return Collections.unmodifiableMap(valuesMap);
     }
 
-    public Object getFirstValue()
+    /**
+     * Returns the values of this row that were read for another row reader, starting at a slot.
+     *
+     * @param rowReader - the row reader whose columns start at the slot
+     * @param startSlot - the slot of the row reader's first column
+     * @return - the row for the row reader
+     */
+    public PhotonQueryResultRow slice(PhotonRowReader rowReader, int startSlot)
     {
-        return firstValue;
+        return new PhotonQueryResultRow(
+            rowReader,
+            Arrays.copyOfRange(values, startSlot, startSlot + rowReader.getSlotCount()));
     }
 
-    public PhotonQueryResultRow()
+    public Object getFirstValue()
     {
-        values = new HashMap<>();
+        return values.length > 0 ? values[0] : null;
     }
 }
@@ -0,0 +1,171 @@
+package com.github.molcikas.photon.query;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads result set rows into flat arrays of values. Each column name is assigned a slot, and the result set column
+ * index for each slot is resolved once per SQL text and then reused for every row.
+ */
+public class PhotonRowReader
+{
+    // Bounds the number of SQL texts whose column indexes are cached, in case a reader is used for many ad-hoc queries.
+    private static final int MAX_CACHED_SQL_TEXTS = 64;
+
+    private final List<String> columnNames;
+    private final List<String> columnNamesLowerCase;
+    private final Map<String, Integer> slots;
+    private final ColumnReader[] columnReaders;
+    private final ConcurrentMap<String, int[]> columnIndexesBySqlText;
+
+    public PhotonRowReader(List<String> columnNames, List<String> columnNamesLowerCase)
+    {
+        this(columnNames, columnNamesLowerCase, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param columnNames - the column names
+     * @param columnNamesLowerCase - the column names in lower case, used for matching result set column labels
+     * @param columnReaders - the reader for each column, or null to read every column with getObject()
+     */
+    public PhotonRowReader(List<String> columnNames, List<String> columnNamesLowerCase, List<ColumnReader> columnReaders)
+    {
+        this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+        this.columnNamesLowerCase = Collections.unmodifiableList(new ArrayList<>(columnNamesLowerCase));
+        this.slots = new HashMap<>();
+        for(int i = 0; i < columnNames.size(); i++)
+        {
+            slots.putIfAbsent(columnNames.get(i), i);
+        }
+        this.columnReaders = new ColumnReader[columnNames.size()];
+        for(int i = 0; i < columnNames.size(); i++)
+        {
+            this.columnReaders[i] = columnReaders != null ? columnReaders.get(i) : ColumnReader.OBJECT;
+        }
+        this.columnIndexesBySqlText = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a reader that reads every column in a result set, using the column labels as the column names.
+     *
+     * @param metaData - the result set meta data
+     * @return - the row reader
+     * @throws SQLException - if the meta data cannot be read
+     */
+    public static PhotonRowReader forAllColumns(ResultSetMetaData metaData) throws SQLException
+    {
+        List<String> columnLabels = new ArrayList<>(metaData.getColumnCount());
+        List<String> columnLabelsLowerCase = new ArrayList<>(metaData.getColumnCount());
+        for(int i = 1; i <= metaData.getColumnCount(); i++)
+        {
+            columnLabels.add(metaData.getColumnLabel(i));
+            columnLabelsLowerCase.add(metaData.getColumnLabel(i).toLowerCase());
+        }
+        return new PhotonRowReader(columnLabels, columnLabelsLowerCase);
+    }
+
+    /**
+     * Creates a reader that reads the columns of each reader one after another, so that a row read from one result
+     * set can be sliced back into a row for each reader.
+     *
+     * @param rowReaders - the row readers
+     * @return - the row reader
+     */
+    public static PhotonRowReader concat(List<PhotonRowReader> rowReaders)
+    {
+        if(rowReaders.size() == 1)
+        {
+            return rowReaders.get(0);
+        }
+
+        List<String> columnNames = new ArrayList<>();
+        List<String> columnNamesLowerCase = new ArrayList<>();
+        List<ColumnReader> columnReaders = new ArrayList<>();
+        for(PhotonRowReader rowReader : rowReaders)
+        {
+            columnNames.addAll(rowReader.columnNames);
+            columnNamesLowerCase.addAll(rowReader.columnNamesLowerCase);
+            columnReaders.addAll(Arrays.asList(rowReader.columnReaders));
+        }
+        return new PhotonRowReader(columnNames, columnNamesLowerCase, columnReaders);
+    }
+
+    public int getSlotCount()
+    {
+        return columnNames.size();
+    }
+
+    public String getColumnName(int slot)
+    {
+        return columnNames.get(slot);
+    }
+
+    /**
+     * Returns the slot for a column name.
+     *
+     * @param columnName - the column name
+     * @return - the slot, or -1 if the column is not read by this reader
+     */
+    public int getSlot(String columnName)
+    {
+        Integer slot = slots.get(columnName);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Returns the result set column index for each slot, or 0 for slots whose column is not in the result set.
+     *
+     * @param sqlText - the SQL text that produced the result set
+     * @param resultSet - the result set
+     * @return - the column indexes
+     * @throws SQLException - if the result set meta data cannot be read
+     */
+    int[] getColumnIndexes(String sqlText, ResultSet resultSet) throws SQLException
+    {
+        int[] columnIndexes = columnIndexesBySqlText.get(sqlText);
+        if(columnIndexes != null)
+        {
+            return columnIndexes;
+        }
+
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        Map<String, Integer> resultColumnIndexes = new HashMap<>();
+        for(int i = metaData.getColumnCount(); i >= 1; i--)
+        {
+            // Iterate backwards so that the first column wins if there are duplicate labels.
+            resultColumnIndexes.put(metaData.getColumnLabel(i).toLowerCase(), i);
+        }
+
+        columnIndexes = new int[columnNamesLowerCase.size()];
+        for(int slot = 0; slot < columnIndexes.length; slot++)
+        {
+            Integer columnIndex = resultColumnIndexes.get(columnNamesLowerCase.get(slot));
+            columnIndexes[slot] = columnIndex != null ? columnIndex : 0;
+        }
+
+        if(columnIndexesBySqlText.size() < MAX_CACHED_SQL_TEXTS)
+        {
+            columnIndexesBySqlText.put(sqlText, columnIndexes);
+        }
+        return columnIndexes;
+    }
+
+    PhotonQueryResultRow readRow(ResultSet resultSet, int[] columnIndexes) throws SQLException
+    {
+        Object[] values = new Object[columnIndexes.length];
+        for(int slot = 0; slot < columnIndexes.length; slot++)
+        {
+            if(columnIndexes[slot] > 0)
+            {
+                values[slot] = columnReaders[slot].read(resultSet, columnIndexes[slot]);
+            }
+        }
+        return new PhotonQueryResultRow(this, values);
+    }
+}
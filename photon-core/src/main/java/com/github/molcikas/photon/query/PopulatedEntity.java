@@ -9,14 +9,11 @@ import com.github.molcikas.photon.blueprints.table.TableBlueprint;
 import com.github.molcikas.photon.blueprints.table.TableValue;
 import lombok.Getter;
 import lombok.Setter;
-import lombok.SneakyThrows;
 import org.apache.commons.lang3.StringUtils;
 import com.github.molcikas.photon.converters.Converter;
 import com.github.molcikas.photon.converters.Convert;
 import com.github.molcikas.photon.exceptions.PhotonException;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -34,9 +31,13 @@ public class PopulatedEntity<T>
     @Getter
     private Object foreignKeyToParentValue;
 
-    // TODO: Does this need to be a field? Can it be changed back to a method arg?
+    // The row this entity was hydrated from. Tracking keeps it to take a snapshot of the fetched values later.
+    @Getter
     private PhotonQueryResultRow photonQueryResultRow;
 
+    @Getter
+    private boolean columnsFullyQualified;
+
     @Getter
     @Setter
     private PopulatedEntity<?> parentPopulatedEntity;
@@ -50,6 +51,7 @@ public class PopulatedEntity<T>
     {
         this.entityBlueprint = entityBlueprint;
         this.photonQueryResultRow = photonQueryResultRow;
+        this.columnsFullyQualified = columnsFullyQualified;
         constructOrphanEntityInstance(columnsFullyQualified);
     }
 
@@ -103,39 +105,31 @@ public class PopulatedEntity<T>
             return PhotonPreparedStatement.convertValue(new ParameterValue(fieldValue, columnBlueprint));
         }
 
-        Exception thrownException;
+        if(!fieldBlueprint.isFieldOf(entityInstance))
+        {
+            // If the field is not in the instance, it's probably because the entity blueprint contains multiple
+            // sub-classes with different fields, and this field is not in this sub-class.
+            return null;
+        }
 
         try
         {
-            Field field = entityBlueprint.getReflectedField(fieldBlueprint.getFieldName());
-            Object fieldValue = field.get(entityInstance);
+            Object fieldValue = fieldBlueprint.getValue(entityInstance);
             if(columnBlueprint == null)
             {
                 return fieldValue;
             }
             return PhotonPreparedStatement.convertValue(new ParameterValue(fieldValue, columnBlueprint));
         }
-        catch(IllegalArgumentException ex)
-        {
-            if(ex.getMessage().startsWith("Can not set"))
-            {
-                // If the field is not in the instance, it's probably because the entity blueprint contains multiple
-                // sub-classes with different fields, and this field is not in this sub-class.
-                return null;
-            }
-            thrownException = ex;
-        }
-        catch(Exception ex)
+        catch(Throwable ex)
         {
-            thrownException = ex;
+            throw new PhotonException(
+                ex,
+                "Error getting value for field '%s' on entity '%s'.",
+                fieldBlueprint.getFieldName(),
+                entityBlueprint.getEntityClassName()
+            );
         }
-
-        throw new PhotonException(
-            thrownException,
-            "Error getting value for field '%s' on entity '%s'.",
-            fieldBlueprint.getFieldName(),
-            entityBlueprint.getEntityClassName()
-        );
     }
 
     public List<PopulatedEntity<?>> getChildPopulatedEntitiesForField(FieldBlueprint fieldBlueprint)
@@ -209,7 +203,7 @@ public class PopulatedEntity<T>
 
         Object fieldCollection = getInstanceValue(fieldBlueprint, null);
 
-        Converter converter = Convert.getConverterIfExists(fieldBlueprint.getFlattenedCollectionBlueprint().getFieldClass());
+        Converter converter = fieldBlueprint.getFlattenedCollectionBlueprint().getValueConverter();
         Object fieldValue = converter.convert(value);
         ((Collection) fieldCollection).add(fieldValue);
     }
@@ -227,7 +221,7 @@ public class PopulatedEntity<T>
 
                 if(collection.isEmpty())
                 {
-                    if(Arrays.stream(entityInstance.getClass().getDeclaredFields()).noneMatch(f -> f.getName().equals(fieldBlueprint.getFieldName())))
+                    if(fieldBlueprint.getReflectedField().getDeclaringClass() != entityInstance.getClass())
                     {
                         // If the instance does not have the field and the collection is empty, just skip it.
                         continue;
@@ -236,15 +230,14 @@ public class PopulatedEntity<T>
 
                 try
                 {
-                    Field field = entityBlueprint.getReflectedField(fieldBlueprint.getFieldName());
                     Object fieldValue = collection;
                     if(childCollectionConstructor != null)
                     {
                         fieldValue = childCollectionConstructor.toFieldValue(collection, entityInstance);
                     }
-                    field.set(entityInstance, fieldValue);
+                    fieldBlueprint.setValue(entityInstance, fieldValue);
                 }
-                catch(Exception ex)
+                catch(Throwable ex)
                 {
                     throw new PhotonException(
                         ex,
@@ -262,10 +255,9 @@ public class PopulatedEntity<T>
                 {
                     try
                     {
-                        Field field = entityBlueprint.getReflectedField(fieldBlueprint.getFieldName());
-                        field.set(entityInstance, childPopulatedEntity.getEntityInstance());
+                        fieldBlueprint.setValue(entityInstance, childPopulatedEntity.getEntityInstance());
                     }
-                    catch (Exception ex)
+                    catch (Throwable ex)
                     {
                         throw new PhotonException(
                             ex,
@@ -282,7 +274,31 @@ public class PopulatedEntity<T>
     public GetParameterValuesResult getParameterValuesForUpdate(
         TableBlueprint tableBlueprint,
         PopulatedEntity parentPopulatedEntity,
-        Map<String, ParameterValue> trackedValues)
+        Object[] trackedValues)
+    {
+        return getParameterValuesForUpdate(
+            tableBlueprint,
+            parentPopulatedEntity != null ? parentPopulatedEntity.getPrimaryKeyValue() : null,
+            trackedValues
+        );
+    }
+
+    /**
+     * Gets the values of every column in a table for tracking changes to this entity.
+     *
+     * @param tableBlueprint - the table blueprint
+     * @param parentPrimaryKeyValue - the primary key value of the parent entity, used for the foreign key column
+     * @return - the snapshot of the column values, or null if the entity cannot be tracked
+     */
+    public Object[] getSnapshot(TableBlueprint tableBlueprint, Object parentPrimaryKeyValue)
+    {
+        return getParameterValuesForUpdate(tableBlueprint, parentPrimaryKeyValue, null).getSnapshot();
+    }
+
+    private GetParameterValuesResult getParameterValuesForUpdate(
+        TableBlueprint tableBlueprint,
+        Object parentPrimaryKeyValue,
+        Object[] trackedValues)
     {
         if(primaryKeyValue == null)
         {
@@ -297,6 +313,8 @@ public class PopulatedEntity<T>
         boolean isChanged = false;
         Map<String, ParameterValue> parameterValues = new LinkedHashMap<>();
         Map<String, Object> values = new HashMap<>();
+        List<ColumnBlueprint> columns = tableBlueprint.getColumns();
+        Object[] snapshot = new Object[columns.size()];
 
         ColumnBlueprint versionColumn = tableBlueprint.getVersionColumn(entityBlueprint);
         Number version = null;
@@ -307,12 +325,11 @@ public class PopulatedEntity<T>
             incrementedVersion = version != null ? version.longValue() + 1 : 0;
         }
 
-        for (ColumnBlueprint columnBlueprint : tableBlueprint.getColumns())
+        for (int i = 0; i < columns.size(); i++)
         {
+            ColumnBlueprint columnBlueprint = columns.get(i);
             Object fieldValue;
             FieldBlueprint fieldBlueprint = columnBlueprint.getMappedFieldBlueprint();
-            ParameterValue trackedValue =
-                trackedValues != null ? trackedValues.get(columnBlueprint.getColumnName()) : null;
 
             if(columnBlueprint.equals(versionColumn))
             {
@@ -335,16 +352,18 @@ public class PopulatedEntity<T>
             }
             else if (columnBlueprint.isForeignKeyToParentColumn())
             {
-                fieldValue = parentPopulatedEntity.getPrimaryKeyValue();
+                fieldValue = parentPrimaryKeyValue;
             }
             else
             {
                 return GetParameterValuesResult.unchanged();
             }
 
-            ParameterValue value = new ParameterValue(fieldValue, columnBlueprint);
+            snapshot[i] = fieldValue;
 
-            boolean isColumnChanged = trackedValue == null || !trackedValue.equals(value);
+            // The data type and serializer are the same for every value in a column, so only the values are compared.
+            boolean isColumnChanged =
+                trackedValues == null || !new TableValue(trackedValues[i]).equals(new TableValue(fieldValue));
             if(isColumnChanged)
             {
                 isChanged = true;
@@ -352,7 +371,7 @@ public class PopulatedEntity<T>
 
             if(isColumnChanged || columnBlueprint.isPrimaryKeyColumn() || columnBlueprint.equals(versionColumn))
             {
-                parameterValues.put(columnBlueprint.getColumnName(), value);
+                parameterValues.put(columnBlueprint.getColumnName(), new ParameterValue(fieldValue, columnBlueprint));
             }
         }
 
@@ -366,7 +385,7 @@ public class PopulatedEntity<T>
             parameterValues.put(versionColumn.getColumnName() + "_Where", new ParameterValue(version, versionColumn));
         }
 
-        return new GetParameterValuesResult(false, true, parameterValues);
+        return new GetParameterValuesResult(false, true, parameterValues, snapshot);
     }
 
     public List<ParameterValue> getParameterValuesForInsert(
@@ -420,16 +439,22 @@ public class PopulatedEntity<T>
         return parameterValues;
     }
 
-    @SneakyThrows
     private void constructOrphanEntityInstance(boolean columnsFullyQualified)
     {
-        Constructor<T> constructor = entityBlueprint.getEntityConstructor(photonQueryResultRow.getValuesMap());
+        entityInstance = (T) entityBlueprint.constructEntityInstance(entityBlueprint.hasEntityClassDiscriminator() ?
+            photonQueryResultRow.getValuesMap() :
+            Collections.emptyMap());
 
-        entityInstance = constructor.newInstance();
-
-        for(Map.Entry<String, Object> entry : photonQueryResultRow.getValues())
+        if(photonQueryResultRow.getRowReader() == entityBlueprint.getRowReader(columnsFullyQualified))
         {
-            setInstanceFieldToDatabaseValue(entry.getKey(), entry.getValue(), columnsFullyQualified);
+            setInstanceFieldsToDatabaseValuesBySlot(columnsFullyQualified);
+        }
+        else
+        {
+            for(Map.Entry<String, Object> entry : photonQueryResultRow.getValues())
+            {
+                setInstanceFieldToDatabaseValue(entry.getKey(), entry.getValue(), columnsFullyQualified);
+            }
         }
 
         for(FieldBlueprint fieldBlueprint : entityBlueprint.getCompoundCustomValueMapperFields())
@@ -451,6 +476,38 @@ public class PopulatedEntity<T>
         }
     }
 
+    private void setInstanceFieldsToDatabaseValuesBySlot(boolean columnsFullyQualified)
+    {
+        int primaryKeySlot = entityBlueprint.getPrimaryKeySlot();
+        if(primaryKeySlot >= 0)
+        {
+            primaryKeyValue = photonQueryResultRow.getValue(primaryKeySlot);
+        }
+        int foreignKeyToParentSlot = entityBlueprint.getForeignKeyToParentSlot();
+        if(foreignKeyToParentSlot >= 0)
+        {
+            foreignKeyToParentValue = photonQueryResultRow.getValue(foreignKeyToParentSlot);
+        }
+
+        int slotCount = photonQueryResultRow.getRowReader().getSlotCount();
+        for(int slot = 0; slot < slotCount; slot++)
+        {
+            Object databaseValue = photonQueryResultRow.getValue(slot);
+            if(databaseValue == null)
+            {
+                continue;
+            }
+
+            FieldBlueprint fieldBlueprint = entityBlueprint.getFieldForSlot(slot, columnsFullyQualified);
+            if(fieldBlueprint == null || fieldBlueprint.getFieldType() == FieldType.CompoundCustomValueMapper)
+            {
+                continue;
+            }
+
+            setInstanceFieldToValue(fieldBlueprint, convertValue(databaseValue, fieldBlueprint));
+        }
+    }
+
     private void setInstanceFieldToDatabaseValue(String columnName, Object databaseValue, boolean isColumnNameQualified)
     {
         FieldBlueprint fieldBlueprint;
@@ -494,12 +551,7 @@ public class PopulatedEntity<T>
 
     private Object convertValue(Object databaseValue, FieldBlueprint fieldBlueprint)
     {
-        Converter converter = fieldBlueprint.getCustomHydrater();
-        if(converter == null && fieldBlueprint.getFieldClass() != null)
-        {
-            converter = Convert.getConverterIfExists(fieldBlueprint.getFieldClass());
-        }
-
+        Converter converter = fieldBlueprint.getHydrater();
         return converter != null ? converter.convert(databaseValue) : databaseValue;
     }
 
@@ -512,23 +564,22 @@ public class PopulatedEntity<T>
         }
         else
         {
-            Field field = entityBlueprint.getReflectedField(fieldBlueprint.getFieldName());
-            setInstanceFieldToValue(field, value);
+            setInstanceFieldValue(fieldBlueprint, value);
         }
     }
 
-    private void setInstanceFieldToValue(Field field, Object value)
+    private void setInstanceFieldValue(FieldBlueprint fieldBlueprint, Object value)
     {
         try
         {
-            field.set(entityInstance, value);
+            fieldBlueprint.setValue(entityInstance, value);
         }
-        catch (Exception ex)
+        catch (Throwable ex)
         {
             throw new PhotonException(
                 ex,
                 "Failed to set value for field '%s' to '%s' on entity '%s'.",
-                field.getName(),
+                fieldBlueprint.getFieldName(),
                 value,
                 entityBlueprint.getEntityClassName()
             );
@@ -544,8 +595,16 @@ public class PopulatedEntity<T>
 
         for(Map.Entry<String, Object> valueToSet : valuesToSet.entrySet())
         {
-            Field field = entityBlueprint.getReflectedField(valueToSet.getKey());
-            setInstanceFieldToValue(field, valueToSet.getValue());
+            FieldBlueprint fieldBlueprint = entityBlueprint.getField(valueToSet.getKey());
+            if(fieldBlueprint == null)
+            {
+                throw new PhotonException(
+                    "Failed to set value for field '%s' on entity '%s' because the field is not mapped.",
+                    valueToSet.getKey(),
+                    entityBlueprint.getEntityClassName()
+                );
+            }
+            setInstanceFieldValue(fieldBlueprint, valueToSet.getValue());
         }
     }
 
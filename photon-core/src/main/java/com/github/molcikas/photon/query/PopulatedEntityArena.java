@@ -0,0 +1,48 @@
+package com.github.molcikas.photon.query;
+
+import com.github.molcikas.photon.blueprints.entity.FieldBlueprint;
+import com.github.molcikas.photon.blueprints.table.TableBlueprint;
+
+import java.util.*;
+
+/**
+ * The populated entities of a single save. Each entity's child entities and tracking snapshots are built once and
+ * reused by every step of the save that needs them, instead of being rebuilt from the entity instances each time.
+ */
+class PopulatedEntityArena
+{
+    private final Map<PopulatedEntity, Map<FieldBlueprint, List<PopulatedEntity>>> childPopulatedEntities;
+    private final Map<TableBlueprint, Map<PopulatedEntity, Object[]>> snapshots;
+
+    PopulatedEntityArena()
+    {
+        this.childPopulatedEntities = new IdentityHashMap<>();
+        this.snapshots = new HashMap<>();
+    }
+
+    List<PopulatedEntity> getChildPopulatedEntities(PopulatedEntity populatedEntity, FieldBlueprint fieldBlueprint)
+    {
+        return childPopulatedEntities
+            .computeIfAbsent(populatedEntity, k -> new HashMap<>())
+            .computeIfAbsent(fieldBlueprint, populatedEntity::getChildPopulatedEntitiesForField);
+    }
+
+    void putSnapshot(TableBlueprint tableBlueprint, PopulatedEntity populatedEntity, Object[] snapshot)
+    {
+        snapshots.computeIfAbsent(tableBlueprint, k -> new IdentityHashMap<>()).put(populatedEntity, snapshot);
+    }
+
+    /**
+     * Removes the snapshot of an entity's table that was taken earlier in the save, such as when the entity was
+     * checked for changes before being inserted.
+     *
+     * @param tableBlueprint - the table blueprint
+     * @param populatedEntity - the populated entity
+     * @return - the snapshot, or null if one was not taken
+     */
+    Object[] removeSnapshot(TableBlueprint tableBlueprint, PopulatedEntity populatedEntity)
+    {
+        Map<PopulatedEntity, Object[]> tableSnapshots = snapshots.get(tableBlueprint);
+        return tableSnapshots != null ? tableSnapshots.remove(populatedEntity) : null;
+    }
+}
@@ -1,8 +1,8 @@
 package com.github.molcikas.photon.query;
 
 import com.github.molcikas.photon.blueprints.entity.EntityBlueprint;
-import com.github.molcikas.photon.blueprints.table.ColumnBlueprint;
 import com.github.molcikas.photon.blueprints.entity.FieldBlueprint;
+import com.github.molcikas.photon.blueprints.table.TableValue;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -11,12 +11,15 @@ public class PopulatedEntityMap
 {
     // TODO: Convert to multivalue map
     private final Map<EntityBlueprint, List<PopulatedEntity<?>>> populatedEntityMap;
-    private final Map<EntityBlueprint, Integer> childIndexes;
+
+    // The entities of each child blueprint grouped by foreign key, in query order. Children are removed from their
+    // group as they are handed to their parent. Built the first time a parent asks for children of the blueprint.
+    private final Map<EntityBlueprint, Map<TableValue, Deque<PopulatedEntity<?>>>> childrenByForeignKey;
 
     public PopulatedEntityMap()
     {
         this.populatedEntityMap = new HashMap<>();
-        this.childIndexes = new HashMap<>();
+        this.childrenByForeignKey = new HashMap<>();
     }
 
     public List<PopulatedEntity<?>> getAllPopulatedEntities()
@@ -56,24 +59,34 @@ public class PopulatedEntityMap
 
     public PopulatedEntity<?> setParentAndGetNextChild(EntityBlueprint entityBlueprint, PopulatedEntity<?> parentPopulatedEntity)
     {
-        Integer index = childIndexes.get(entityBlueprint);
-        List<PopulatedEntity<?>> populatedEntities = populatedEntityMap.get(entityBlueprint);
-        if(populatedEntities == null)
+        Map<TableValue, Deque<PopulatedEntity<?>>> children =
+            childrenByForeignKey.computeIfAbsent(entityBlueprint, this::groupByForeignKey);
+        Deque<PopulatedEntity<?>> parentChildren = children.get(parentPopulatedEntity.getPrimaryKey());
+        if(parentChildren == null || parentChildren.isEmpty())
         {
             return null;
         }
-        if (index == null)
+        PopulatedEntity<?> populatedEntity = parentChildren.poll();
+        populatedEntity.setParentPopulatedEntity(parentPopulatedEntity);
+        return populatedEntity;
+    }
+
+    private Map<TableValue, Deque<PopulatedEntity<?>>> groupByForeignKey(EntityBlueprint entityBlueprint)
+    {
+        List<PopulatedEntity<?>> populatedEntities = populatedEntityMap.get(entityBlueprint);
+        if(populatedEntities == null)
         {
-            index = 0;
+            return Collections.emptyMap();
         }
-        if (index < populatedEntities.size() && keysAreEqual(parentPopulatedEntity.getPrimaryKeyValue(), populatedEntities.get(index).getForeignKeyToParentValue()))
+
+        Map<TableValue, Deque<PopulatedEntity<?>>> children = new HashMap<>();
+        for(PopulatedEntity<?> populatedEntity : populatedEntities)
         {
-            childIndexes.put(entityBlueprint, index + 1);
-            PopulatedEntity<?> populatedEntity = populatedEntities.get(index);
-            populatedEntity.setParentPopulatedEntity(parentPopulatedEntity);
-            return populatedEntity;
+            children
+                .computeIfAbsent(populatedEntity.getForeignKeyToParent(), k -> new ArrayDeque<>())
+                .add(populatedEntity);
         }
-        return null;
+        return children;
     }
 
     public void mapAllEntityInstanceChildren()
@@ -85,39 +98,29 @@ public class PopulatedEntityMap
 
     public void setFieldValuesOnEntityInstances(List<PhotonQueryResultRow> photonQueryResultRows, FieldBlueprint fieldBlueprint, EntityBlueprint entityBlueprint)
     {
-        ColumnBlueprint primaryKeyColumn = entityBlueprint.getTableBlueprint().getPrimaryKeyColumn();
         List<PopulatedEntity<?>> populatedEntities = populatedEntityMap.get(entityBlueprint);
-        String foreignTableKeyColumnName = fieldBlueprint.getFlattenedCollectionBlueprint().getColumnName();
-
-        int entityIndex = 0;
-        for(PhotonQueryResultRow photonQueryResultRow : photonQueryResultRows)
+        if(populatedEntities == null)
         {
-            Object primaryKeyValue = photonQueryResultRow.getValue(primaryKeyColumn.getColumnName());
-            while(entityIndex < populatedEntities.size() && !keysAreEqual(primaryKeyValue, populatedEntities.get(entityIndex).getPrimaryKeyValue()))
-            {
-                entityIndex++;
-            }
-            if(entityIndex >= populatedEntities.size())
-            {
-                break;
-            }
-            PopulatedEntity populatedEntity = populatedEntities.get(entityIndex);
-            populatedEntity.appendValueToFlattenedCollectionField(fieldBlueprint, photonQueryResultRow.getValue(foreignTableKeyColumnName));
+            return;
         }
-    }
 
-    private boolean keysAreEqual(Object primaryKey, Object foreignKey)
-    {
-        if(primaryKey.equals(foreignKey))
+        Map<TableValue, PopulatedEntity<?>> populatedEntitiesByPrimaryKey = new HashMap<>();
+        for(PopulatedEntity<?> populatedEntity : populatedEntities)
         {
-            return true;
+            populatedEntitiesByPrimaryKey.put(populatedEntity.getPrimaryKey(), populatedEntity);
         }
 
-        if (primaryKey instanceof byte[] && foreignKey instanceof byte[])
+        String foreignKeyToParentColumnName = fieldBlueprint.getFlattenedCollectionBlueprint().getForeignKeyToParent();
+        String foreignTableKeyColumnName = fieldBlueprint.getFlattenedCollectionBlueprint().getColumnName();
+
+        for(PhotonQueryResultRow photonQueryResultRow : photonQueryResultRows)
         {
-            return Arrays.equals((byte[]) primaryKey, (byte[]) foreignKey);
+            PopulatedEntity<?> populatedEntity = populatedEntitiesByPrimaryKey.get(
+                new TableValue(photonQueryResultRow.getValue(foreignKeyToParentColumnName)));
+            if(populatedEntity != null)
+            {
+                populatedEntity.appendValueToFlattenedCollectionField(fieldBlueprint, photonQueryResultRow.getValue(foreignTableKeyColumnName));
+            }
         }
-
-        return false;
     }
 }
@@ -64,9 +64,10 @@ public final class DeleteSqlBuilderService
         TableBlueprint tableBlueprint,
         PhotonOptions photonOptions)
     {
-        String deleteSql = String.format("DELETE FROM [%s] WHERE [%s] IN (?)",
+        String deleteSql = String.format("DELETE FROM [%s] WHERE [%s] %s",
             tableBlueprint.getTableName(),
-            tableBlueprint.getPrimaryKeyColumnName()
+            tableBlueprint.getPrimaryKeyColumnName(),
+            SqlBuilderApplyOptionsService.getInArraySql(photonOptions)
         );
 
         deleteSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(deleteSql, photonOptions);
@@ -87,15 +88,26 @@ public final class DeleteSqlBuilderService
             return;
         }
 
-        String deleteChildrenExceptSql = String.format("DELETE FROM [%s] WHERE [%s] = ? AND [%s] NOT IN (?)",
+        String deleteChildrenExceptSql = String.format("DELETE FROM [%s] WHERE [%s] = ? AND [%s] %s",
             tableBlueprint.getTableName(),
             tableBlueprint.getForeignKeyToParentColumn().getColumnName(),
-            tableBlueprint.getPrimaryKeyColumnName()
+            tableBlueprint.getPrimaryKeyColumnName(),
+            SqlBuilderApplyOptionsService.getNotInArraySql(photonOptions)
         );
 
         deleteChildrenExceptSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(deleteChildrenExceptSql, photonOptions);
         log.debug("Delete Children Except Sql for {}:\n{}", tableBlueprint.getTableName(), deleteChildrenExceptSql);
         tableBlueprint.setDeleteChildrenExceptSql(deleteChildrenExceptSql);
+
+        String deleteChildrenOfParentsSql = String.format("DELETE FROM [%s] WHERE [%s] %s",
+            tableBlueprint.getTableName(),
+            tableBlueprint.getForeignKeyToParentColumn().getColumnName(),
+            SqlBuilderApplyOptionsService.getInArraySql(photonOptions)
+        );
+
+        deleteChildrenOfParentsSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(deleteChildrenOfParentsSql, photonOptions);
+        log.debug("Delete Children Of Parents Sql for {}:\n{}", tableBlueprint.getTableName(), deleteChildrenOfParentsSql);
+        tableBlueprint.setDeleteChildrenOfParentsSql(deleteChildrenOfParentsSql);
     }
 
     private static void buildDeleteOrphansSqlRecursive(
@@ -106,9 +118,10 @@ public final class DeleteSqlBuilderService
         if(parentTableBlueprints.isEmpty())
         {
             String deleteOrphansSql = String.format(
-                "DELETE FROM [%s] WHERE [%s] IN (?)",
+                "DELETE FROM [%s] WHERE [%s] %s",
                 tableBlueprint.getTableName(),
-                tableBlueprint.getPrimaryKeyColumnName()
+                tableBlueprint.getPrimaryKeyColumnName(),
+                SqlBuilderApplyOptionsService.getInArraySql(photonOptions)
             );
             deleteOrphansSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(deleteOrphansSql, photonOptions);
             log.debug("Delete Orphans Sql Level {} Sql for {}:\n{}", parentTableBlueprints.size(), tableBlueprint.getTableName(), deleteOrphansSql);
@@ -134,10 +147,11 @@ public final class DeleteSqlBuilderService
         ));
         SqlJoinClauseBuilderService.buildChildToParentJoinClauseSql(deleteOrphansSqlBuilder, tableBlueprint, true);
         deleteOrphansSqlBuilder.append(String.format(
-            "%nWHERE [%s].[%s] IN (?)" +
+            "%nWHERE [%s].[%s] %s" +
             "%n)",
             rootTableBlueprint.getTableName(),
-            rootTableBlueprint.getPrimaryKeyColumnName()
+            rootTableBlueprint.getPrimaryKeyColumnName(),
+            SqlBuilderApplyOptionsService.getInArraySql(photonOptions)
         ));
 
         String deleteOrphansSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(deleteOrphansSqlBuilder.toString(), photonOptions);
@@ -155,18 +169,20 @@ public final class DeleteSqlBuilderService
     {
         FlattenedCollectionBlueprint flattenedCollectionBlueprint = fieldBlueprint.getFlattenedCollectionBlueprint();
 
-        String deleteSql = String.format("DELETE FROM [%s] WHERE [%s] IN (?)",
+        String deleteSql = String.format("DELETE FROM [%s] WHERE [%s] %s",
             flattenedCollectionBlueprint.getTableName(),
-            flattenedCollectionBlueprint.getForeignKeyToParent()
+            flattenedCollectionBlueprint.getForeignKeyToParent(),
+            SqlBuilderApplyOptionsService.getInArraySql(photonOptions)
         );
 
         deleteSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(deleteSql, photonOptions);
         log.debug("Delete All Foreign Key Sql for {}:\n{}", fieldBlueprint.getFieldName(), deleteSql);
         flattenedCollectionBlueprint.setDeleteSql(deleteSql);
 
-        String deleteForeignKeysSql = String.format("DELETE FROM [%s] WHERE [%s] IN (?) AND [%s] = ?",
+        String deleteForeignKeysSql = String.format("DELETE FROM [%s] WHERE [%s] %s AND [%s] = ?",
             flattenedCollectionBlueprint.getTableName(),
             flattenedCollectionBlueprint.getColumnName(),
+            SqlBuilderApplyOptionsService.getInArraySql(photonOptions),
             flattenedCollectionBlueprint.getForeignKeyToParent()
         );
 
@@ -60,6 +60,30 @@ public final class InsertSqlBuilderService
         }
     }
 
+    public static String buildMultiRowInsertSql(
+        TableBlueprint tableBlueprint,
+        int rowCount,
+        boolean alwaysIncludePrimaryKey,
+        PhotonOptions photonOptions)
+    {
+        List<ColumnBlueprint> columnBlueprints = tableBlueprint.getColumnsForInsertStatement(alwaysIncludePrimaryKey);
+        int initialCapacity = tableBlueprint.getColumns().size() * 16 + columnBlueprints.size() * rowCount * 2 + 64;
+        StringBuilder sqlBuilder = new StringBuilder(initialCapacity);
+        buildInsertClauseSql(sqlBuilder, tableBlueprint);
+        buildColumnsClauseSql(sqlBuilder, columnBlueprints);
+
+        sqlBuilder.append("\nVALUES");
+        for(int i = 0; i < rowCount; i++)
+        {
+            sqlBuilder.append(i == 0 ? "\n" : ",\n");
+            buildQuestionMarksSql(sqlBuilder, columnBlueprints.size());
+        }
+
+        String insertSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(sqlBuilder.toString(), photonOptions);
+        log.debug("Multi-Row Insert Sql for {} with {} rows:\n{}", tableBlueprint.getTableName(), rowCount, insertSql);
+        return insertSql;
+    }
+
     private static void buildInsertClauseSql(StringBuilder sqlBuilder, TableBlueprint tableBlueprint)
     {
         sqlBuilder.append(String.format("INSERT INTO [%s]", tableBlueprint.getTableName()));
@@ -68,19 +92,33 @@ public final class InsertSqlBuilderService
     private static void buildValuesClauseSql(StringBuilder sqlBuilder, TableBlueprint tableBlueprint, boolean alwaysIncludePrimaryKey)
     {
         List<ColumnBlueprint> columnBlueprints = tableBlueprint.getColumnsForInsertStatement(alwaysIncludePrimaryKey);
+
+        buildColumnsClauseSql(sqlBuilder, columnBlueprints);
+        sqlBuilder.append("\nVALUES\n");
+        buildQuestionMarksSql(sqlBuilder, columnBlueprints.size());
+    }
+
+    private static void buildColumnsClauseSql(StringBuilder sqlBuilder, List<ColumnBlueprint> columnBlueprints)
+    {
         List<String> columnNames = new ArrayList<>(columnBlueprints.size());
-        List<String> questionMarks = new ArrayList<>(columnBlueprints.size());
 
         for(ColumnBlueprint columnBlueprint : columnBlueprints)
         {
             columnNames.add(String.format("[%s]", columnBlueprint.getColumnName()));
-            questionMarks.add("?");
         }
 
         sqlBuilder.append("\n(");
         sqlBuilder.append(StringUtils.join(columnNames, ","));
-        sqlBuilder.append(")\nVALUES\n(");
-        sqlBuilder.append(StringUtils.join(questionMarks, ","));
+        sqlBuilder.append(")");
+    }
+
+    private static void buildQuestionMarksSql(StringBuilder sqlBuilder, int count)
+    {
+        sqlBuilder.append("(");
+        for(int i = 0; i < count; i++)
+        {
+            sqlBuilder.append(i == 0 ? "?" : ",?");
+        }
         sqlBuilder.append(")");
     }
 
@@ -5,12 +5,15 @@ import com.github.molcikas.photon.blueprints.entity.FieldBlueprint;
 import com.github.molcikas.photon.blueprints.entity.FlattenedCollectionBlueprint;
 import com.github.molcikas.photon.blueprints.table.ColumnBlueprint;
 import com.github.molcikas.photon.blueprints.table.TableBlueprint;
+import com.github.molcikas.photon.exceptions.PhotonException;
+import com.github.molcikas.photon.options.IdTableMode;
 import com.github.molcikas.photon.options.PhotonOptions;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 public final class SelectSqlBuilderService
 {
@@ -19,6 +22,8 @@ public final class SelectSqlBuilderService
     public static void buildSelectSqlTemplates(EntityBlueprint entityBlueprint, PhotonOptions photonOptions)
     {
         buildSelectSqlRecursive(entityBlueprint, photonOptions);
+        buildSelectKeysSql(entityBlueprint, photonOptions);
+        buildIdTableSql(entityBlueprint.getTableBlueprint(), photonOptions);
     }
 
     private static void buildSelectSqlRecursive(
@@ -31,7 +36,7 @@ public final class SelectSqlBuilderService
 
         for(TableBlueprint tableBlueprint : entityBlueprint.getJoinedTableBlueprints())
         {
-            buildSelectByIdSql(tableBlueprint, photonOptions);
+            buildSelectByIdsSql(tableBlueprint, photonOptions);
         }
 
         entityBlueprint.getFlattenedCollectionFields().forEach(f -> buildSelectKeysFromForeignTableSql(f, photonOptions));
@@ -58,31 +63,52 @@ public final class SelectSqlBuilderService
         int initialCapacity = mainTableBlueprint.getColumns().size() * 16 + 64;
         StringBuilder sqlBuilder = new StringBuilder(initialCapacity);
 
-        buildSelectClauseSql(sqlBuilder, mainTableBlueprint, entityBlueprint.getJoinedTableBlueprints());
+        List<TableBlueprint> joinFetchedChildTableBlueprints = entityBlueprint
+            .getJoinFetchedChildFields()
+            .stream()
+            .map(f -> f.getChildEntityBlueprint().getTableBlueprint())
+            .collect(Collectors.toList());
+        List<TableBlueprint> selectedTableBlueprints = new ArrayList<>(entityBlueprint.getJoinedTableBlueprints());
+        selectedTableBlueprints.addAll(joinFetchedChildTableBlueprints);
+
+        buildSelectClauseSql(sqlBuilder, mainTableBlueprint, selectedTableBlueprints);
         buildFromClauseSql(sqlBuilder, mainTableBlueprint);
         SqlJoinClauseBuilderService.buildParentToEachChildJoinClauseSql(sqlBuilder, mainTableBlueprint, entityBlueprint.getJoinedTableBlueprints());
+        SqlJoinClauseBuilderService.buildJoinFetchedChildrenJoinClauseSql(sqlBuilder, joinFetchedChildTableBlueprints);
         SqlJoinClauseBuilderService.buildChildToParentJoinClauseSql(sqlBuilder, mainTableBlueprint, false);
-        if(openWhere)
-        {
-            buildOpenWhereClauseSql(sqlBuilder);
-        }
-        else
-        {
-            buildWhereClauseSql(sqlBuilder, rootTableBlueprint);
-        }
-        buildOrderBySql(sqlBuilder, mainTableBlueprint);
+        String selectFromSql = sqlBuilder.toString();
+
+        StringBuilder orderBySqlBuilder = new StringBuilder();
+        buildOrderBySql(orderBySqlBuilder, mainTableBlueprint, joinFetchedChildTableBlueprints);
+        String orderBySql = orderBySqlBuilder.toString();
 
-        String selectSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(sqlBuilder.toString(), photonOptions);
-        log.debug("Select{} Sql for {}:\n{}", openWhere ? " Where" : "", mainTableBlueprint.getTableName(), selectSql);
         if(openWhere)
         {
-            mainTableBlueprint.setSelectWhereSql(selectSql);
-        }
-        else
-        {
-            mainTableBlueprint.setSelectSql(selectSql);
-            mainTableBlueprint.setSelectWithQuestionSql(String.format(selectSql, "?"));
+            StringBuilder selectWhereSqlBuilder = new StringBuilder(selectFromSql);
+            buildOpenWhereClauseSql(selectWhereSqlBuilder);
+            String selectWhereSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(
+                selectWhereSqlBuilder.append(orderBySql).toString(), photonOptions);
+            log.debug("Select Where Sql for {}:\n{}", mainTableBlueprint.getTableName(), selectWhereSql);
+            mainTableBlueprint.setSelectWhereSql(selectWhereSql);
+            return;
         }
+
+        // The select SQL can wrap a subquery of ids, while the ids are always bound with setNextArrayParameter() for
+        // the select with question marks.
+        StringBuilder selectSqlBuilder = new StringBuilder(selectFromSql);
+        buildWhereClauseSql(selectSqlBuilder, rootTableBlueprint, "IN (%s)");
+        String selectSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(
+            selectSqlBuilder.append(orderBySql).toString(), photonOptions);
+        log.debug("Select Sql for {}:\n{}", mainTableBlueprint.getTableName(), selectSql);
+        mainTableBlueprint.setSelectSql(selectSql);
+
+        StringBuilder selectWithQuestionSqlBuilder = new StringBuilder(selectFromSql);
+        buildWhereClauseSql(
+            selectWithQuestionSqlBuilder, rootTableBlueprint, SqlBuilderApplyOptionsService.getInArraySql(photonOptions));
+        String selectWithQuestionSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(
+            selectWithQuestionSqlBuilder.append(orderBySql).toString(), photonOptions);
+        log.debug("Select With Question Sql for {}:\n{}", mainTableBlueprint.getTableName(), selectWithQuestionSql);
+        mainTableBlueprint.setSelectWithQuestionSql(selectWithQuestionSql);
     }
 
     private static void buildSelectClauseSql(StringBuilder parentSqlBuilder, TableBlueprint mainTableBlueprint, List<TableBlueprint> joinedParents)
@@ -116,12 +142,12 @@ public final class SelectSqlBuilderService
         sqlBuilder.append(String.format("%nFROM [%s]", tableBlueprint.getTableName()));
     }
 
-    private static void buildWhereClauseSql(StringBuilder sqlBuilder, TableBlueprint tableBlueprint)
+    private static void buildWhereClauseSql(StringBuilder sqlBuilder, TableBlueprint tableBlueprint, String inSql)
     {
-        sqlBuilder.append(String.format("%nWHERE [%s].[%s] IN (%s)",
+        sqlBuilder.append(String.format("%nWHERE [%s].[%s] %s",
             tableBlueprint.getTableName(),
             tableBlueprint.getPrimaryKeyColumnName(),
-            "%s"
+            inSql
         ));
     }
 
@@ -132,34 +158,38 @@ public final class SelectSqlBuilderService
 
     private static void buildOrderBySql(
         StringBuilder sqlBuilder,
-        TableBlueprint tableBlueprint)
+        TableBlueprint tableBlueprint,
+        List<TableBlueprint> joinFetchedChildTableBlueprints)
     {
-        List<TableBlueprint> tableBlueprints = new ArrayList<>();
-        TableBlueprint nextTable = tableBlueprint;
-        while(nextTable != null)
-        {
-            tableBlueprints.add(nextTable);
-            nextTable = nextTable.getParentTableBlueprint();
-        }
-        Collections.reverse(tableBlueprints);
-
-        sqlBuilder.append("\nORDER BY ");
-
         StringBuilder orderBySqlBuilder = new StringBuilder();
 
-        for (TableBlueprint table : tableBlueprints)
+        if(tableBlueprint.isOrderByKeys())
         {
-            if(StringUtils.isNotBlank(table.getOrderBySql()))
+            List<TableBlueprint> tableBlueprints = new ArrayList<>();
+            TableBlueprint nextTable = tableBlueprint;
+            while(nextTable != null)
             {
-                orderBySqlBuilder.append(table.getOrderBySql()).append(", ");
+                tableBlueprints.add(nextTable);
+                nextTable = nextTable.getParentTableBlueprint();
             }
+            Collections.reverse(tableBlueprints);
 
-            // We need to add the primary key as a secondary sort, otherwise entity selects might fail because
-            // it expects child entities to be sorted by parent.
-            orderBySqlBuilder.append(String.format("[%s].[%s], ",
-                table.getTableName(),
-                table.getPrimaryKeyColumnName()
-            ));
+            for (TableBlueprint table : tableBlueprints)
+            {
+                appendOrderBySql(orderBySqlBuilder, table, true);
+            }
+        }
+        else
+        {
+            // Children are matched to parents by key, so only this table's own ordering is needed.
+            appendOrderBySql(orderBySqlBuilder, tableBlueprint, false);
+        }
+
+        // Children that are fetched with a join are read in the order of the rows, so they are sorted within each
+        // parent row.
+        for(TableBlueprint childTableBlueprint : joinFetchedChildTableBlueprints)
+        {
+            appendOrderBySql(orderBySqlBuilder, childTableBlueprint, childTableBlueprint.isOrderByKeys());
         }
 
         // Replace repeated commas with a single comma and trim commas at the end
@@ -168,7 +198,136 @@ public final class SelectSqlBuilderService
             .replaceAll(", *, *", ", ")
             .replaceAll(", *$", "");
 
-        sqlBuilder.append(orderBySql);
+        if(StringUtils.isNotBlank(orderBySql))
+        {
+            sqlBuilder.append("\nORDER BY ").append(orderBySql);
+        }
+    }
+
+    private static void appendOrderBySql(StringBuilder orderBySqlBuilder, TableBlueprint table, boolean includePrimaryKey)
+    {
+        if(StringUtils.isNotBlank(table.getOrderBySql()))
+        {
+            orderBySqlBuilder.append(table.getOrderBySql()).append(", ");
+        }
+
+        if(includePrimaryKey)
+        {
+            // Add the primary key as a secondary sort so that entities without an order by have a stable order.
+            orderBySqlBuilder.append(String.format("[%s].[%s], ",
+                table.getTableName(),
+                table.getPrimaryKeyColumnName()
+            ));
+        }
+    }
+
+    private static void buildSelectKeysSql(EntityBlueprint entityBlueprint, PhotonOptions photonOptions)
+    {
+        TableBlueprint tableBlueprint = entityBlueprint.getTableBlueprint();
+        List<TableBlueprint> joinFetchedChildTableBlueprints = entityBlueprint
+            .getJoinFetchedChildFields()
+            .stream()
+            .map(f -> f.getChildEntityBlueprint().getTableBlueprint())
+            .collect(Collectors.toList());
+
+        // The where clause can use any table in the select for the aggregate root, so those tables are joined here too.
+        StringBuilder sqlBuilder = new StringBuilder();
+        sqlBuilder.append(String.format("SELECT [%s].[%s]",
+            tableBlueprint.getTableName(),
+            tableBlueprint.getPrimaryKeyColumnName()
+        ));
+        buildFromClauseSql(sqlBuilder, tableBlueprint);
+        SqlJoinClauseBuilderService.buildParentToEachChildJoinClauseSql(sqlBuilder, tableBlueprint, entityBlueprint.getJoinedTableBlueprints());
+        SqlJoinClauseBuilderService.buildJoinFetchedChildrenJoinClauseSql(sqlBuilder, joinFetchedChildTableBlueprints);
+        buildOpenWhereClauseSql(sqlBuilder);
+        String selectKeysWhereSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(sqlBuilder.toString(), photonOptions);
+        log.debug("Select Keys Where Sql for {}:\n{}", tableBlueprint.getTableName(), selectKeysWhereSql);
+        tableBlueprint.setSelectKeysWhereSql(selectKeysWhereSql);
+
+        String selectFirstKeysSql = String.format("SELECT [%s] FROM [%s] WHERE [%s] IN (%s) ORDER BY [%s]",
+            tableBlueprint.getPrimaryKeyColumnName(),
+            tableBlueprint.getTableName(),
+            tableBlueprint.getPrimaryKeyColumnName(),
+            "%s",
+            tableBlueprint.getPrimaryKeyColumnName()
+        );
+        selectFirstKeysSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(selectFirstKeysSql, photonOptions);
+        log.debug("Select First Keys Sql for {}:\n{}", tableBlueprint.getTableName(), selectFirstKeysSql);
+        tableBlueprint.setSelectFirstKeysSql(selectFirstKeysSql);
+
+        String selectNextKeysSql = String.format("SELECT [%s] FROM [%s] WHERE [%s] IN (%s) AND [%s] > ? ORDER BY [%s]",
+            tableBlueprint.getPrimaryKeyColumnName(),
+            tableBlueprint.getTableName(),
+            tableBlueprint.getPrimaryKeyColumnName(),
+            "%s",
+            tableBlueprint.getPrimaryKeyColumnName(),
+            tableBlueprint.getPrimaryKeyColumnName()
+        );
+        selectNextKeysSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(selectNextKeysSql, photonOptions);
+        log.debug("Select Next Keys Sql for {}:\n{}", tableBlueprint.getTableName(), selectNextKeysSql);
+        tableBlueprint.setSelectNextKeysSql(selectNextKeysSql);
+    }
+
+    private static void buildIdTableSql(TableBlueprint tableBlueprint, PhotonOptions photonOptions)
+    {
+        if(photonOptions.getIdTableMode() == IdTableMode.Disabled)
+        {
+            return;
+        }
+
+        String idTableName = String.format("%sphoton_%s_ids",
+            photonOptions.getIdTableMode() == IdTableMode.SelectInto ? "#" : "",
+            tableBlueprint.getTableName()
+        );
+
+        // The table is created with the type of the primary key column by selecting from the root table.
+        String createIdTableSql;
+        switch(photonOptions.getIdTableMode())
+        {
+            case LocalTemporary:
+                createIdTableSql = String.format(
+                    "CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS [%s] TRANSACTIONAL AS SELECT [%s] AS [id] FROM [%s] WHERE 1=0",
+                    idTableName,
+                    tableBlueprint.getPrimaryKeyColumnName(),
+                    tableBlueprint.getTableName()
+                );
+                break;
+            case Temporary:
+                createIdTableSql = String.format(
+                    "CREATE TEMPORARY TABLE IF NOT EXISTS [%s] AS SELECT [%s] AS [id] FROM [%s] WHERE 1=0",
+                    idTableName,
+                    tableBlueprint.getPrimaryKeyColumnName(),
+                    tableBlueprint.getTableName()
+                );
+                break;
+            case SelectInto:
+                createIdTableSql = String.format(
+                    "IF OBJECT_ID('tempdb..%s') IS NULL SELECT [%s] AS [id] INTO [%s] FROM [%s] WHERE 1=0",
+                    idTableName,
+                    tableBlueprint.getPrimaryKeyColumnName(),
+                    idTableName,
+                    tableBlueprint.getTableName()
+                );
+                break;
+            default:
+                throw new PhotonException("Unknown id table mode '%s'.", photonOptions.getIdTableMode());
+        }
+
+        createIdTableSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(createIdTableSql, photonOptions);
+        log.debug("Create Id Table Sql for {}:\n{}", tableBlueprint.getTableName(), createIdTableSql);
+        tableBlueprint.setCreateIdTableSql(createIdTableSql);
+
+        String insertIdTableSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(
+            String.format("INSERT INTO [%s] ([id]) VALUES (?)", idTableName), photonOptions);
+        tableBlueprint.setInsertIdTableSql(insertIdTableSql);
+
+        String selectIdTableSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(
+            String.format("SELECT [id] FROM [%s]", idTableName), photonOptions);
+        tableBlueprint.setSelectIdTableSql(selectIdTableSql);
+
+        String deleteIdTableSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(
+            String.format("DELETE FROM [%s]", idTableName), photonOptions);
+        tableBlueprint.setDeleteIdTableSql(deleteIdTableSql);
     }
 
     private static void buildSelectOrphansSql(TableBlueprint tableBlueprint, PhotonOptions photonOptions)
@@ -191,11 +350,14 @@ public final class SelectSqlBuilderService
         }
 
         String selectOrphansSql = String.format(
-            "SELECT [%s] FROM [%s] WHERE [%s] = ? AND [%s] NOT IN (?)",
+            "SELECT [%s], [%s] FROM [%s] WHERE [%s] %s AND [%s] %s",
             tableBlueprint.getPrimaryKeyColumnName(),
+            tableBlueprint.getForeignKeyToParentColumn().getColumnName(),
             tableBlueprint.getTableName(),
             tableBlueprint.getForeignKeyToParentColumn().getColumnName(),
-            tableBlueprint.getPrimaryKeyColumnName()
+            SqlBuilderApplyOptionsService.getInArraySql(photonOptions),
+            tableBlueprint.getPrimaryKeyColumnName(),
+            SqlBuilderApplyOptionsService.getNotInArraySql(photonOptions)
         );
 
         selectOrphansSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(selectOrphansSql, photonOptions);
@@ -203,34 +365,47 @@ public final class SelectSqlBuilderService
         tableBlueprint.setSelectOrphansSql(selectOrphansSql);
     }
 
-    private static void buildSelectByIdSql(TableBlueprint tableBlueprint, PhotonOptions photonOptions)
+    private static void buildSelectByIdsSql(TableBlueprint tableBlueprint, PhotonOptions photonOptions)
     {
-        String selectByIdSql = String.format(
-            "SELECT [%s] FROM [%s] WHERE [%s] = ?",
+        String selectByIdsSql = String.format(
+            "SELECT [%s] FROM [%s] WHERE [%s] %s",
             tableBlueprint.getPrimaryKeyColumnName(),
             tableBlueprint.getTableName(),
-            tableBlueprint.getPrimaryKeyColumnName()
+            tableBlueprint.getPrimaryKeyColumnName(),
+            SqlBuilderApplyOptionsService.getInArraySql(photonOptions)
         );
 
-        selectByIdSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(selectByIdSql, photonOptions);
+        selectByIdsSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(selectByIdsSql, photonOptions);
 
-        tableBlueprint.setSelectByIdSql(selectByIdSql);
+        tableBlueprint.setSelectByIdsSql(selectByIdsSql);
     }
 
     private static void buildSelectKeysFromForeignTableSql(FieldBlueprint fieldBlueprint, PhotonOptions photonOptions)
     {
         FlattenedCollectionBlueprint flattenedCollectionBlueprint = fieldBlueprint.getFlattenedCollectionBlueprint();
 
-        String flattenedCollectionSql = String.format("SELECT [%s], [%s] FROM [%s] WHERE [%s] IN (?) ORDER BY [%s]",
+        String flattenedCollectionSql = String.format("SELECT [%s], [%s] FROM [%s] WHERE [%s] %s ORDER BY [%s]",
             flattenedCollectionBlueprint.getColumnName(),
             flattenedCollectionBlueprint.getForeignKeyToParent(),
             flattenedCollectionBlueprint.getTableName(),
             flattenedCollectionBlueprint.getForeignKeyToParent(),
+            SqlBuilderApplyOptionsService.getInArraySql(photonOptions),
             flattenedCollectionBlueprint.getForeignKeyToParent()
         );
 
         flattenedCollectionSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(flattenedCollectionSql, photonOptions);
         log.debug("Select Flattened Collection Sql for {}:\n{}", fieldBlueprint.getFieldName(), flattenedCollectionSql);
         flattenedCollectionBlueprint.setSelectSql(flattenedCollectionSql);
+
+        String selectWhereInSql = String.format("SELECT [%s], [%s] FROM [%s] WHERE [%s] IN (%s) ORDER BY [%s]",
+            flattenedCollectionBlueprint.getColumnName(),
+            flattenedCollectionBlueprint.getForeignKeyToParent(),
+            flattenedCollectionBlueprint.getTableName(),
+            flattenedCollectionBlueprint.getForeignKeyToParent(),
+            "%s",
+            flattenedCollectionBlueprint.getForeignKeyToParent()
+        );
+        selectWhereInSql = SqlBuilderApplyOptionsService.applyPhotonOptionsToSql(selectWhereInSql, photonOptions);
+        flattenedCollectionBlueprint.setSelectWhereInSql(selectWhereInSql);
     }
 }
@@ -10,4 +10,28 @@ public final class SqlBuilderApplyOptionsService
             .replaceAll("\\[", photonOptions.getDelimitIdentifierStart())
             .replaceAll("\\]", photonOptions.getDelimitIdentifierEnd());
     }
+
+    /**
+     * Returns the SQL for comparing a column to a list of values set with setNextArrayParameter(). This is a single
+     * array parameter if array parameters are enabled, otherwise an IN list.
+     *
+     * @param photonOptions - the photon options
+     * @return - the SQL to put after the column name
+     */
+    public static String getInArraySql(PhotonOptions photonOptions)
+    {
+        return photonOptions.isEnableArrayParameters() ? "= ANY(?)" : "IN (?)";
+    }
+
+    /**
+     * Returns the SQL for checking that a column is not in a list of values set with setNextArrayParameter(). This is
+     * a single array parameter if array parameters are enabled, otherwise a NOT IN list.
+     *
+     * @param photonOptions - the photon options
+     * @return - the SQL to put after the column name
+     */
+    public static String getNotInArraySql(PhotonOptions photonOptions)
+    {
+        return photonOptions.isEnableArrayParameters() ? "<> ALL(?)" : "NOT IN (?)";
+    }
 }
@@ -42,4 +42,21 @@ public final class SqlJoinClauseBuilderService
             ));
         }
     }
+
+    public static void buildJoinFetchedChildrenJoinClauseSql(
+        StringBuilder sqlBuilder,
+        List<TableBlueprint> childTableBlueprints)
+    {
+        for(TableBlueprint childTableBlueprint : childTableBlueprints)
+        {
+            // A left join keeps the parents that do not have any children.
+            sqlBuilder.append(String.format("%nLEFT JOIN [%s] ON [%s].[%s] = [%s].[%s]",
+                childTableBlueprint.getTableName(),
+                childTableBlueprint.getTableName(),
+                childTableBlueprint.getForeignKeyToParentColumn().getColumnName(),
+                childTableBlueprint.getParentTableBlueprint().getTableName(),
+                childTableBlueprint.getParentTableBlueprint().getPrimaryKeyColumnName()
+            ));
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.github.molcikas.photon.tests.integration;
+
+import java.util.Date;
+import java.util.List;
+
+public class PhotonTestDateTable
+{
+    private Integer id;
+    private List<Date> dates;
+
+    public int getId()
+    {
+        return id;
+    }
+
+    public List<Date> getDates()
+    {
+        return dates;
+    }
+
+    private PhotonTestDateTable()
+    {
+    }
+
+    public PhotonTestDateTable(Integer id, List<Date> dates)
+    {
+        this.id = id;
+        this.dates = dates;
+    }
+}
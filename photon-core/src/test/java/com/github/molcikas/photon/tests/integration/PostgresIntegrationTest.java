@@ -2,6 +2,7 @@ package com.github.molcikas.photon.tests.integration;
 
 import com.github.molcikas.photon.Photon;
 import com.github.molcikas.photon.PhotonTransaction;
+import com.github.molcikas.photon.blueprints.table.ColumnDataType;
 import com.github.molcikas.photon.exceptions.PhotonException;
 import com.github.molcikas.photon.options.PhotonOptions;
 import lombok.SneakyThrows;
@@ -9,8 +10,13 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
@@ -48,6 +54,13 @@ public class PostgresIntegrationTest
             .withPrimaryKeyAutoIncrement()
             .register();
 
+        photon
+            .registerAggregate(PhotonTestDateTable.class)
+            .withId("id")
+            .withPrimaryKeyAutoIncrement()
+            .withFlattenedCollection("dates", Date.class, "PhotonTestDateValue", "photonTestDateTableId", "dateValue", ColumnDataType.DATE)
+            .register();
+
         try(PhotonTransaction transaction = photon.beginTransaction())
         {
             transaction
@@ -66,6 +79,21 @@ public class PostgresIntegrationTest
                     "TABLESPACE pg_default;"
                 ).executeInsert();
 
+            transaction
+                .query(
+                "DROP TABLE IF EXISTS \"PhotonTestDateValue\";\n" +
+                    "DROP TABLE IF EXISTS \"PhotonTestDateTable\";\n" +
+                    "CREATE TABLE \"PhotonTestDateTable\"\n" +
+                    "(\n" +
+                    "    id SERIAL PRIMARY KEY\n" +
+                    ");\n" +
+                    "CREATE TABLE \"PhotonTestDateValue\"\n" +
+                    "(\n" +
+                    "    \"photonTestDateTableId\" integer NOT NULL REFERENCES \"PhotonTestDateTable\" (id),\n" +
+                    "    \"dateValue\" date NOT NULL\n" +
+                    ");"
+                ).executeInsert();
+
             transaction.commit();
         }
 
@@ -119,4 +147,64 @@ public class PostgresIntegrationTest
             assertEquals(photonTestTable, photonTestTableFetched);
         }
     }
+
+    @Test
+    public void fetchByIds_arrayParameters_returnsAggregates()
+    {
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            transaction
+                .query("INSERT INTO \"PhotonTestTable\" (\"uuidColumn\", \"dateColumn\", \"varcharColumn\") VALUES ('11111111-2222-3333-4444-555555555555', to_timestamp(1493493022), 'Second String')")
+                .executeInsert();
+            transaction.commit();
+        }
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<PhotonTestTable> photonTestTables = transaction
+                .query(PhotonTestTable.class)
+                .fetchByIds(Arrays.asList(1, 2, 3));
+
+            assertEquals(2, photonTestTables.size());
+            assertEquals("Test String", photonTestTables.get(0).getVarcharColumn());
+            assertEquals("Second String", photonTestTables.get(1).getVarcharColumn());
+        }
+    }
+
+    @Test
+    public void saveAggregate_removeDateFromFlattenedCollection_deletesDateWithDateArray()
+    {
+        Date firstDate = toDate(LocalDate.of(2017, 3, 19));
+        Date secondDate = toDate(LocalDate.of(2017, 4, 29));
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            transaction.save(new PhotonTestDateTable(null, new ArrayList<>(Arrays.asList(firstDate, secondDate))));
+            transaction.commit();
+        }
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            PhotonTestDateTable photonTestDateTable = transaction.query(PhotonTestDateTable.class).fetchById(1);
+            assertEquals(2, photonTestDateTable.getDates().size());
+
+            // The removed date is deleted with "= ANY(?)", which binds a date[] array.
+            photonTestDateTable.getDates().remove(firstDate);
+            transaction.save(photonTestDateTable);
+            transaction.commit();
+        }
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            PhotonTestDateTable photonTestDateTable = transaction.query(PhotonTestDateTable.class).fetchById(1);
+
+            assertEquals(1, photonTestDateTable.getDates().size());
+            assertEquals(secondDate, photonTestDateTable.getDates().get(0));
+        }
+    }
+
+    private static Date toDate(LocalDate localDate)
+    {
+        return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
 }
@@ -2,6 +2,7 @@ package com.github.molcikas.photon.tests.integration;
 
 import com.github.molcikas.photon.Photon;
 import com.github.molcikas.photon.PhotonTransaction;
+import com.github.molcikas.photon.options.IdTableMode;
 import com.github.molcikas.photon.options.PhotonOptions;
 import org.junit.Before;
 import org.junit.Test;
@@ -9,7 +10,9 @@ import org.junit.Test;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 import java.util.UUID;
 
@@ -111,4 +114,41 @@ public class SqlServerIntegrationTest
             assertEquals(photonTestTable, photonTestTableFetched);
         }
     }
+
+    @Test
+    public void fetchByIdsWithSelectIntoIdTable_fetchesAggregatesTwice()
+    {
+        Photon idTablePhoton = new Photon(
+            "jdbc:sqlserver://localhost:11433;databaseName=photon_test_db",
+            "sa",
+            "Gobears123",
+            PhotonOptions.sqlServerOptions().idTableMode(IdTableMode.SelectInto).idTableThreshold(2).build()
+        );
+
+        idTablePhoton
+            .registerAggregate(PhotonTestTable.class)
+            .withId("id")
+            .withPrimaryKeyAutoIncrement()
+            .register();
+
+        try(PhotonTransaction transaction = idTablePhoton.beginTransaction())
+        {
+            transaction.query("INSERT INTO PhotonTestTable VALUES ('11111111-2222-3333-4444-555555555555', DATEADD(SECOND, 1489915698, '1970-01-01'), 'Test String 2')").executeInsert();
+            transaction.query("INSERT INTO PhotonTestTable VALUES ('11111111-2222-3333-4444-666666666666', DATEADD(SECOND, 1489915698, '1970-01-01'), 'Test String 3')").executeInsert();
+
+            // The second fetch reuses the #temp table that the first fetch created and emptied.
+            for(int i = 0; i < 2; i++)
+            {
+                List<PhotonTestTable> photonTestTables = transaction
+                    .query(PhotonTestTable.class)
+                    .fetchByIds(Arrays.asList(3, 1, 2, 100));
+
+                assertEquals(3, photonTestTables.size());
+                assertEquals(1, photonTestTables.get(0).getId());
+                assertEquals("Test String", photonTestTables.get(0).getVarcharColumn());
+                assertEquals(3, photonTestTables.get(2).getId());
+                assertEquals("Test String 3", photonTestTables.get(2).getVarcharColumn());
+            }
+        }
+    }
 }
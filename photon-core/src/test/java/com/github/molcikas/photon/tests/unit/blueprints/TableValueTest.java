@@ -5,8 +5,13 @@ import com.github.molcikas.photon.blueprints.table.TableValue;
 import com.github.molcikas.photon.converters.Convert;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class TableValueTest
@@ -25,4 +30,28 @@ public class TableValueTest
         TableBlueprintAndKey tableBlueprintAndKey2 = new TableBlueprintAndKey(null, value2);
         assertTrue(tableBlueprintAndKey1.equals(tableBlueprintAndKey2));
     }
+
+    @Test
+    public void hashCode_binaryUuidsWithSharedPrefix_areSpreadAcrossHashCodes()
+    {
+        UUID uuid = UUID.fromString("3e038307-a9b6-11e6-ab83-0a0027000010");
+        int keyCount = 100000;
+        Set<Integer> hashCodes = new HashSet<>();
+        Map<TableValue, Integer> trackedKeys = new HashMap<>();
+
+        for(int i = 0; i < keyCount; i++)
+        {
+            UUID nextUuid = new UUID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits() + i);
+            TableValue value = new TableValue(Convert.getConverter(byte[].class).convert(nextUuid));
+            hashCodes.add(value.hashCode());
+            trackedKeys.put(value, i);
+        }
+
+        // Hashing the bytes one at a time gives fewer than 10,000 distinct hash codes for these keys.
+        assertTrue(hashCodes.size() > keyCount * 99 / 100);
+
+        UUID lastUuid = new UUID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits() + keyCount - 1);
+        TableValue lastValue = new TableValue(Convert.getConverter(byte[].class).convert(lastUuid));
+        assertEquals(Integer.valueOf(keyCount - 1), trackedKeys.get(lastValue));
+    }
 }
@@ -0,0 +1,39 @@
+package com.github.molcikas.photon.tests.unit.converters;
+
+import com.github.molcikas.photon.converters.Converter;
+import com.github.molcikas.photon.converters.ResolvedConverter;
+import com.github.molcikas.photon.tests.unit.entities.fieldtest.TestEnum;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ResolvedConverterTest
+{
+    @Test
+    public void get_enumClasses_resolvesConverterForEachEnumClass()
+    {
+        ResolvedConverter<TestEnum> testEnumConverter = new ResolvedConverter<>(TestEnum.class);
+        ResolvedConverter<DayOfWeek> dayOfWeekConverter = new ResolvedConverter<>(DayOfWeek.class);
+
+        assertNotSame(testEnumConverter.get(), dayOfWeekConverter.get());
+        assertEquals(TestEnum.VALUE_TWO, testEnumConverter.get().convert(2));
+        assertEquals(TestEnum.VALUE_THREE, testEnumConverter.get().convert("VALUE_THREE"));
+        assertEquals(DayOfWeek.WEDNESDAY, dayOfWeekConverter.get().convert(2));
+        assertEquals(DayOfWeek.FRIDAY, dayOfWeekConverter.get().convert("FRIDAY"));
+    }
+
+    @Test
+    public void get_calledTwice_returnsSameConverter()
+    {
+        ResolvedConverter<TestEnum> testEnumConverter = new ResolvedConverter<>(TestEnum.class);
+
+        Converter<TestEnum> converter = testEnumConverter.get();
+
+        assertSame(converter, testEnumConverter.get());
+        assertSame(converter, new ResolvedConverter<>(TestEnum.class).get());
+    }
+}
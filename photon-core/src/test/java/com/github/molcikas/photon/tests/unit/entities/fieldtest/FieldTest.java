@@ -5,6 +5,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.Date;
+import java.util.UUID;
 
 public class FieldTest
 {
@@ -16,6 +17,11 @@ public class FieldTest
     private Instant instant;
     private TestEnum testEnumNumber;
     private TestEnum testEnumString;
+    private int primitiveNumber;
+    private UUID uuid;
+    private Integer tinyNumber;
+    private int smallNumber;
+    private Long bigNumber;
 
     public int getId()
     {
@@ -97,6 +103,31 @@ public class FieldTest
         this.instant = instant;
     }
 
+    public int getPrimitiveNumber()
+    {
+        return primitiveNumber;
+    }
+
+    public UUID getUuid()
+    {
+        return uuid;
+    }
+
+    public Integer getTinyNumber()
+    {
+        return tinyNumber;
+    }
+
+    public int getSmallNumber()
+    {
+        return smallNumber;
+    }
+
+    public Long getBigNumber()
+    {
+        return bigNumber;
+    }
+
     public FieldTest()
     {
     }
@@ -32,6 +32,11 @@ public class MyManyTable
         return myThirdTables;
     }
 
+    public void setMyOtherValueWithDiffName(String myOtherValueWithDiffName)
+    {
+        this.myOtherValueWithDiffName = myOtherValueWithDiffName;
+    }
+
     private MyManyTable()
     {
     }
@@ -24,12 +24,17 @@ public class FieldTestDbSetup
                 "  `instant` DATETIME,\n" +
                 "  `testEnumNumber` int(11),\n" +
                 "  `testEnumString` VARCHAR(255),\n" +
+                "  `primitiveNumber` int(11),\n" +
+                "  `uuid` BINARY(16),\n" +
+                "  `tinyNumber` TINYINT,\n" +
+                "  `smallNumber` SMALLINT,\n" +
+                "  `bigNumber` BIGINT,\n" +
                 "  PRIMARY KEY (`id`)\n" +
                 ")").executeUpdate();
-            transaction.query("insert into `fieldtest` (`id`, `date`, `zonedDateTime`, `localDate`, `localDateTime`, `instant`, `testEnumNumber`, `testEnumString`) " +
-                "values (1, PARSEDATETIME('2017-03-19 09-28-17', 'yyyy-MM-dd HH-mm-ss'), PARSEDATETIME('2017-03-19 09-28-18', 'yyyy-MM-dd HH-mm-ss'), PARSEDATETIME('2017-03-19 09-28-19', 'yyyy-MM-dd HH-mm-ss'), PARSEDATETIME('2017-03-19 09-28-20', 'yyyy-MM-dd HH-mm-ss'), PARSEDATETIME('2017-03-19 09-28-21', 'yyyy-MM-dd HH-mm-ss'), 0, 'VALUE_ONE')").executeUpdate();
-            transaction.query("insert into `fieldtest` (`id`, `date`, `zonedDateTime`, `localDate`, `localDateTime`, `instant`, `testEnumNumber`, `testEnumString`) " +
-                "values (2, NULL, NULL, NULL, NULL, NULL, NULL, NULL)").executeUpdate();
+            transaction.query("insert into `fieldtest` (`id`, `date`, `zonedDateTime`, `localDate`, `localDateTime`, `instant`, `testEnumNumber`, `testEnumString`, `primitiveNumber`, `uuid`, `tinyNumber`, `smallNumber`, `bigNumber`) " +
+                "values (1, PARSEDATETIME('2017-03-19 09-28-17', 'yyyy-MM-dd HH-mm-ss'), PARSEDATETIME('2017-03-19 09-28-18', 'yyyy-MM-dd HH-mm-ss'), PARSEDATETIME('2017-03-19 09-28-19', 'yyyy-MM-dd HH-mm-ss'), PARSEDATETIME('2017-03-19 09-28-20', 'yyyy-MM-dd HH-mm-ss'), PARSEDATETIME('2017-03-19 09-28-21', 'yyyy-MM-dd HH-mm-ss'), 0, 'VALUE_ONE', 7, X'8ED1E1BD253E4469B4CBF5BD1A6B4E21', 12, 1234, 9876543210)").executeUpdate();
+            transaction.query("insert into `fieldtest` (`id`, `date`, `zonedDateTime`, `localDate`, `localDateTime`, `instant`, `testEnumNumber`, `testEnumString`, `primitiveNumber`, `uuid`, `tinyNumber`, `smallNumber`, `bigNumber`) " +
+                "values (2, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL)").executeUpdate();
             transaction.commit();
         }
 
@@ -41,6 +46,11 @@ public class FieldTestDbSetup
         photon.registerAggregate(FieldTest.class)
             .withId("id")
             .withDatabaseColumn("testEnumString", ColumnDataType.VARCHAR)
+            .withDatabaseColumn("primitiveNumber", ColumnDataType.INTEGER)
+            .withDatabaseColumn("uuid", ColumnDataType.BINARY)
+            .withDatabaseColumn("tinyNumber", ColumnDataType.TINYINT)
+            .withDatabaseColumn("smallNumber", ColumnDataType.SMALLINT)
+            .withDatabaseColumn("bigNumber", ColumnDataType.BIGINT)
             .register();
     }
 }
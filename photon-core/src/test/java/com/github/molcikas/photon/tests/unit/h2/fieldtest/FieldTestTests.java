@@ -4,12 +4,15 @@ import org.junit.Before;
 import org.junit.Test;
 import com.github.molcikas.photon.Photon;
 import com.github.molcikas.photon.PhotonTransaction;
+import com.github.molcikas.photon.converters.Convert;
+import com.github.molcikas.photon.converters.Converter;
 import com.github.molcikas.photon.tests.unit.entities.fieldtest.FieldTest;
 import com.github.molcikas.photon.tests.unit.entities.fieldtest.TestEnum;
 
 import java.time.*;
 import java.util.Date;
 import java.util.TimeZone;
+import java.util.UUID;
 
 import static org.junit.Assert.*;
 
@@ -78,6 +81,76 @@ public class FieldTestTests
         }
     }
 
+    @Test
+    public void queryAggregate_withNumbersAndUuid_fetchesAggregateWithCorrectValues()
+    {
+        FieldTestDbSetup.registerAggregate(photon);
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            FieldTest fieldTest = transaction
+                .query(FieldTest.class)
+                .fetchById(1);
+
+            assertEquals(7, fieldTest.getPrimitiveNumber());
+            assertEquals(UUID.fromString("8ed1e1bd-253e-4469-b4cb-f5bd1a6b4e21"), fieldTest.getUuid());
+            assertEquals(Integer.valueOf(12), fieldTest.getTinyNumber());
+            assertEquals(1234, fieldTest.getSmallNumber());
+            assertEquals(Long.valueOf(9876543210L), fieldTest.getBigNumber());
+        }
+    }
+
+    @Test
+    public void queryAggregate_nullNumbersAndUuid_fetchesAggregateWithNullAndZeroValues()
+    {
+        FieldTestDbSetup.registerAggregate(photon);
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            FieldTest fieldTest = transaction
+                .query(FieldTest.class)
+                .fetchById(2);
+
+            // Primitive fields keep their default value when the column is NULL.
+            assertEquals(0, fieldTest.getPrimitiveNumber());
+            assertNull(fieldTest.getUuid());
+            assertNull(fieldTest.getTinyNumber());
+            assertEquals(0, fieldTest.getSmallNumber());
+            assertNull(fieldTest.getBigNumber());
+        }
+    }
+
+    @Test
+    public void queryAggregate_converterRegisteredAfterBlueprintBuilt_usesRegisteredConverter()
+    {
+        FieldTestDbSetup.registerAggregate(photon);
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            FieldTest fieldTest = transaction
+                .query(FieldTest.class)
+                .fetchById(1);
+
+            assertEquals(TestEnum.VALUE_ONE, fieldTest.getTestEnumString());
+        }
+
+        Converter<TestEnum> defaultConverter = Convert.getConverter(TestEnum.class);
+        Convert.registerConverter(TestEnum.class, val -> val == null ? null : TestEnum.VALUE_THREE);
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            FieldTest fieldTest = transaction
+                .query(FieldTest.class)
+                .fetchById(1);
+
+            assertEquals(TestEnum.VALUE_THREE, fieldTest.getTestEnumNumber());
+            assertEquals(TestEnum.VALUE_THREE, fieldTest.getTestEnumString());
+        }
+        finally
+        {
+            Convert.registerConverter(TestEnum.class, defaultConverter);
+        }
+    }
+
     @Test
     public void createAggregate_withDates_createsAggregateWithCorrectValues()
     {
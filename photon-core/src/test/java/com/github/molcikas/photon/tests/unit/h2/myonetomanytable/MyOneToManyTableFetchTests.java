@@ -1,8 +1,12 @@
 package com.github.molcikas.photon.tests.unit.h2.myonetomanytable;
 
 import com.github.molcikas.photon.blueprints.entity.ChildCollectionConstructor;
+import com.github.molcikas.photon.blueprints.entity.FetchStrategy;
 import com.github.molcikas.photon.blueprints.table.ColumnDataType;
 import com.github.molcikas.photon.exceptions.PhotonException;
+import com.github.molcikas.photon.options.IdTableMode;
+import com.github.molcikas.photon.options.PhotonOptions;
+import com.github.molcikas.photon.tests.unit.h2.H2TestUtil;
 import com.github.molcikas.photon.tests.unit.entities.myonetomanytable.MyOneToManyMapTable;
 import org.junit.Assert;
 import org.junit.Before;
@@ -13,9 +17,12 @@ import com.github.molcikas.photon.tests.unit.entities.myonetomanytable.MyThirdTa
 import com.github.molcikas.photon.tests.unit.entities.myonetomanytable.MyManyTable;
 import com.github.molcikas.photon.tests.unit.entities.myonetomanytable.MyOneToManyTable;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -139,6 +146,372 @@ public class MyOneToManyTableFetchTests
         }
     }
 
+    @Test
+    public void aggregateQuery_fetchByIdsMoreThanMaxInListSize_returnsAllAggregatesWithChildren()
+    {
+        photon = new Photon(
+            H2TestUtil.h2Url,
+            H2TestUtil.h2User,
+            H2TestUtil.h2Password,
+            PhotonOptions.builder().maxInListSize(2).build()
+        );
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(6, 5, 4, 3, 2, 1, 6, 100);
+
+            assertEquals(6, myOneToManyTables.size());
+            Map<Integer, MyOneToManyTable> myOneToManyTablesById = new HashMap<>();
+            myOneToManyTables.forEach(m -> myOneToManyTablesById.put(m.getId(), m));
+
+            assertEquals(0, myOneToManyTablesById.get(1).getMyManyTables().size());
+            assertEquals(0, myOneToManyTablesById.get(2).getMyManyTables().size());
+            assertEquals(1, myOneToManyTablesById.get(3).getMyManyTables().size());
+            assertEquals(2, myOneToManyTablesById.get(4).getMyManyTables().size());
+            assertEquals(3, myOneToManyTablesById.get(5).getMyManyTables().size());
+            assertEquals(3, myOneToManyTablesById.get(6).getMyManyTables().size());
+
+            MyManyTable myManyTable = myOneToManyTablesById.get(6).getMyManyTables().get(2);
+            assertEquals(Integer.valueOf(9), myManyTable.getId());
+            assertEquals(2, myManyTable.getMyThirdTables().size());
+            assertEquals("thirdtableval4", myManyTable.getMyThirdTables().get(1).getVal());
+        }
+    }
+
+    @Test
+    public void aggregateQuery_fetchByIdsWithoutOrderByKeys_matchesChildrenToParents()
+    {
+        photon.registerAggregate(MyOneToManyTable.class)
+            .withId("id")
+            .withPrimaryKeyAutoIncrement()
+            .withChild("myManyTables", MyManyTable.class)
+                .withId("id", true)
+                .withForeignKeyToParent("parent")
+                .withDatabaseColumn("myothervalue", "myOtherValueWithDiffName", ColumnDataType.VARCHAR)
+                .withOrderBySql("mymanytable.id DESC")
+                .withOrderByKeys(false)
+                .withChild("myThirdTables", MyThirdTable.class)
+                    .withId("id")
+                    .withPrimaryKeyAutoIncrement()
+                    .withForeignKeyToParent("parent")
+                    .withOrderByKeys(false)
+                    .addAsChild()
+                .addAsChild()
+            .register();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(4, 5, 6);
+
+            assertEquals(3, myOneToManyTables.size());
+            Map<Integer, MyOneToManyTable> myOneToManyTablesById = new HashMap<>();
+            myOneToManyTables.forEach(m -> myOneToManyTablesById.put(m.getId(), m));
+
+            List<MyManyTable> myManyTables = myOneToManyTablesById.get(5).getMyManyTables();
+            assertEquals(3, myManyTables.size());
+            assertEquals(Integer.valueOf(6), myManyTables.get(0).getId());
+            assertEquals(Integer.valueOf(5), myManyTables.get(1).getId());
+            assertEquals(Integer.valueOf(4), myManyTables.get(2).getId());
+
+            myManyTables = myOneToManyTablesById.get(6).getMyManyTables();
+            assertEquals(3, myManyTables.size());
+            assertEquals(Integer.valueOf(9), myManyTables.get(0).getId());
+            assertEquals(Integer.valueOf(6), myManyTables.get(0).getParent());
+            assertEquals(2, myManyTables.get(0).getMyThirdTables().size());
+            assertEquals(1, myManyTables.get(1).getMyThirdTables().size());
+            assertEquals("thirdtableval2", myManyTables.get(1).getMyThirdTables().get(0).getVal());
+
+            assertEquals(2, myOneToManyTablesById.get(4).getMyManyTables().size());
+        }
+    }
+
+    @Test
+    public void aggregateQuery_fetchByIdsWithNoMatches_doesNotSelectChildren()
+    {
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(100, 101);
+
+            assertEquals(0, myOneToManyTables.size());
+            assertEquals(1, transaction.getStatementCacheMisses());
+        }
+    }
+
+    @Test
+    public void aggregateQuery_whereIdIn_selectsChildrenWithRootIds()
+    {
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .whereIdIn("SELECT id FROM myonetomanytable WHERE myvalue IN (:myvalues)")
+                .addParameter("myvalues", Arrays.asList("my5dbvalue", "my6dbvalue"))
+                .fetchList();
+
+            assertEquals(2, myOneToManyTables.size());
+            assertEquals(3, myOneToManyTables.get(0).getMyManyTables().size());
+            assertEquals(3, myOneToManyTables.get(1).getMyManyTables().size());
+            assertEquals(2, myOneToManyTables.get(1).getMyManyTables().get(2).getMyThirdTables().size());
+
+            // The child and grandchild selects use the ids of the roots that were found, so fetching by ids reuses
+            // them and only the root select is new.
+            assertEquals(3, transaction.getStatementCacheMisses());
+            transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(5, 6);
+            assertEquals(4, transaction.getStatementCacheMisses());
+        }
+    }
+
+    @Test
+    public void aggregateQuery_multipleResultSetsWithTooManyIds_selectsEachEntityInItsOwnStatement()
+    {
+        photon = new Photon(
+            H2TestUtil.h2Url,
+            H2TestUtil.h2User,
+            H2TestUtil.h2Password,
+            PhotonOptions.builder().enableMultipleResultSets(true).maxBindParameters(2).build()
+        );
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(5, 6);
+
+            // The ids do not fit in a single statement for all three entities, so each entity is selected separately.
+            assertEquals(2, myOneToManyTables.size());
+            assertEquals(3, myOneToManyTables.get(1).getMyManyTables().size());
+            assertEquals(2, myOneToManyTables.get(1).getMyManyTables().get(2).getMyThirdTables().size());
+            assertEquals(3, transaction.getStatementCacheMisses());
+        }
+    }
+
+    @Test
+    public void aggregateQuery_fetchByIdsAfterIdTableLoadFails_selectsOnlyNewIds()
+    {
+        photon = new Photon(
+            H2TestUtil.h2Url,
+            H2TestUtil.h2User,
+            H2TestUtil.h2Password,
+            PhotonOptions.builder().idTableMode(IdTableMode.LocalTemporary).idTableThreshold(2).batchSize(2).build()
+        );
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            try
+            {
+                // The first batch of ids is inserted before the invalid id fails the second batch.
+                transaction
+                    .query(MyOneToManyTable.class)
+                    .fetchByIds(1, 2, 3, "notanid");
+                Assert.fail("Failed to throw PhotonException");
+            }
+            catch (PhotonException ex)
+            {
+                // Expected
+            }
+
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(4, 5, 6);
+
+            assertEquals(3, myOneToManyTables.size());
+            assertEquals(Integer.valueOf(4), myOneToManyTables.get(0).getId());
+            assertEquals(Integer.valueOf(6), myOneToManyTables.get(2).getId());
+        }
+    }
+
+    @Test
+    public void aggregateQuery_fetchByIdsAboveIdTableThreshold_selectsAggregatesWithIdTable()
+    {
+        photon = new Photon(
+            H2TestUtil.h2Url,
+            H2TestUtil.h2User,
+            H2TestUtil.h2Password,
+            PhotonOptions.builder().idTableMode(IdTableMode.LocalTemporary).idTableThreshold(2).batchSize(2).build()
+        );
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(6, 5, 4, 3, 2, 1, 100);
+
+            assertEquals(6, myOneToManyTables.size());
+            assertEquals(Integer.valueOf(1), myOneToManyTables.get(0).getId());
+            MyOneToManyTable myOneToManyTable = myOneToManyTables.get(5);
+            assertEquals(Integer.valueOf(6), myOneToManyTable.getId());
+            assertEquals(3, myOneToManyTable.getMyManyTables().size());
+            assertEquals("my63otherdbvalue", myOneToManyTable.getMyManyTables().get(2).getMyOtherValueWithDiffName());
+            assertEquals(2, myOneToManyTable.getMyManyTables().get(2).getMyThirdTables().size());
+
+            // The id table is emptied after each fetch, so it can be reused by the next one.
+            List<MyOneToManyTable> nextMyOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(4, 5, 6);
+
+            assertEquals(3, nextMyOneToManyTables.size());
+            assertEquals(Integer.valueOf(4), nextMyOneToManyTables.get(0).getId());
+            assertEquals(2, nextMyOneToManyTables.get(0).getMyManyTables().size());
+
+            // Filling and emptying the id table plus one query for each entity. The table is created with a plain statement.
+            assertEquals(5, transaction.getStatementCacheMisses());
+        }
+    }
+
+    @Test
+    public void aggregateQuery_fetchByIdsWithJoinFetchedChildren_selectsChildrenWithParents()
+    {
+        registerMyOneToManyTableAggregateWithJoinFetchedChildren();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(1, 4, 6);
+
+            assertEquals(3, myOneToManyTables.size());
+            assertEquals(Integer.valueOf(1), myOneToManyTables.get(0).getId());
+            assertEquals(0, myOneToManyTables.get(0).getMyManyTables().size());
+            assertEquals(Integer.valueOf(4), myOneToManyTables.get(1).getId());
+            assertEquals(2, myOneToManyTables.get(1).getMyManyTables().size());
+            assertEquals("my42otherdbvalue", myOneToManyTables.get(1).getMyManyTables().get(1).getMyOtherValueWithDiffName());
+
+            MyOneToManyTable myOneToManyTable = myOneToManyTables.get(2);
+            assertEquals(Integer.valueOf(6), myOneToManyTable.getId());
+            assertEquals("my6dbvalue", myOneToManyTable.getMyvalue());
+            assertEquals(3, myOneToManyTable.getMyManyTables().size());
+            assertEquals(Integer.valueOf(7), myOneToManyTable.getMyManyTables().get(0).getId());
+            assertEquals(Integer.valueOf(9), myOneToManyTable.getMyManyTables().get(2).getId());
+            assertEquals(2, myOneToManyTable.getMyManyTables().get(2).getMyThirdTables().size());
+
+            // The many tables are selected with the roots, and only the third tables need their own select.
+            assertEquals(2, transaction.getStatementCacheMisses());
+        }
+    }
+
+    @Test
+    public void aggregateQuery_whereWithJoinFetchedChildren_selectsChildrenWithParents()
+    {
+        registerMyOneToManyTableAggregateWithJoinFetchedChildren();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .where("myvalue IN (:myvalues)")
+                .addParameter("myvalues", Arrays.asList("my5dbvalue", "my6dbvalue"))
+                .fetchList();
+
+            assertEquals(2, myOneToManyTables.size());
+            assertEquals(3, myOneToManyTables.get(0).getMyManyTables().size());
+            assertEquals("my53otherdbvalue", myOneToManyTables.get(0).getMyManyTables().get(2).getMyOtherValueWithDiffName());
+            assertEquals(3, myOneToManyTables.get(1).getMyManyTables().size());
+            assertEquals(2, myOneToManyTables.get(1).getMyManyTables().get(2).getMyThirdTables().size());
+        }
+    }
+
+    @Test
+    public void aggregateQuery_whereOnJoinFetchedChildColumn_selectsAllChildren()
+    {
+        registerMyOneToManyTableAggregateWithJoinFetchedChildren();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .where("MyManyTable.myothervalue = :myothervalue")
+                .addParameter("myothervalue", "my52otherdbvalue")
+                .fetchList();
+
+            assertEquals(1, myOneToManyTables.size());
+            assertEquals(Integer.valueOf(5), myOneToManyTables.get(0).getId());
+            assertEquals(3, myOneToManyTables.get(0).getMyManyTables().size());
+            assertEquals("my51otherdbvalue", myOneToManyTables.get(0).getMyManyTables().get(0).getMyOtherValueWithDiffName());
+            assertEquals("my53otherdbvalue", myOneToManyTables.get(0).getMyManyTables().get(2).getMyOtherValueWithDiffName());
+        }
+    }
+
+    @Test
+    public void aggregateQuery_joinFetchStrategyOnAggregateRoot_throwsException()
+    {
+        try
+        {
+            photon.registerAggregate(MyOneToManyTable.class)
+                .withId("id")
+                .withFetchStrategy(FetchStrategy.Join);
+            Assert.fail("Failed to throw PhotonException");
+        }
+        catch (PhotonException ex)
+        {
+            // Expected
+        }
+    }
+
+    @Test
+    public void aggregateQuery_whereIdInFetchStream_returnsAllAggregatesInChunks()
+    {
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .noTracking()
+                .whereIdIn("SELECT id FROM myonetomanytable WHERE myvalue <> :myvalue")
+                .addParameter("myvalue", "my2dbvalue")
+                .fetchStream(2)
+                .collect(Collectors.toList());
+
+            assertEquals(5, myOneToManyTables.size());
+            assertEquals(Arrays.asList(1, 3, 4, 5, 6), myOneToManyTables.stream().map(MyOneToManyTable::getId).collect(Collectors.toList()));
+            assertEquals(1, myOneToManyTables.get(1).getMyManyTables().size());
+            assertEquals(2, myOneToManyTables.get(2).getMyManyTables().size());
+            assertEquals(3, myOneToManyTables.get(4).getMyManyTables().size());
+            assertEquals(2, myOneToManyTables.get(4).getMyManyTables().get(2).getMyThirdTables().size());
+        }
+    }
+
+    @Test
+    public void aggregateQuery_whereFetchStreamWithLimit_onlyFetchesNeededChunks()
+    {
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .where("id > :id")
+                .addParameter("id", 2)
+                .fetchStream(2)
+                .limit(2)
+                .collect(Collectors.toList());
+
+            assertEquals(2, myOneToManyTables.size());
+            assertEquals(Integer.valueOf(3), myOneToManyTables.get(0).getId());
+            assertEquals(Integer.valueOf(4), myOneToManyTables.get(1).getId());
+            assertEquals(2, myOneToManyTables.get(1).getMyManyTables().size());
+
+            // The first keys, roots, children, and grandchildren were selected, but not the next keys.
+            assertEquals(4, transaction.getStatementCacheMisses());
+        }
+    }
+
     @Test
     public void aggregateQuery_fieldAsMap_returnsAggregate()
     {
@@ -208,4 +581,23 @@ public class MyOneToManyTableFetchTests
                 .addAsChild()
             .register();
     }
+
+    private void registerMyOneToManyTableAggregateWithJoinFetchedChildren()
+    {
+        photon.registerAggregate(MyOneToManyTable.class)
+            .withId("id")
+            .withPrimaryKeyAutoIncrement()
+            .withChild("myManyTables", MyManyTable.class)
+                .withId("id", true)
+                .withForeignKeyToParent("parent")
+                .withDatabaseColumn("myothervalue", "myOtherValueWithDiffName", ColumnDataType.VARCHAR)
+                .withFetchStrategy(FetchStrategy.Join)
+                .withChild("myThirdTables", MyThirdTable.class)
+                    .withId("id")
+                    .withPrimaryKeyAutoIncrement()
+                    .withForeignKeyToParent("parent")
+                    .addAsChild()
+                .addAsChild()
+            .register();
+    }
 }
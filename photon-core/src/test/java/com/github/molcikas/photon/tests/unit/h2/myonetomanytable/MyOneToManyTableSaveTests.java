@@ -8,10 +8,20 @@ import org.junit.Before;
 import org.junit.Test;
 import com.github.molcikas.photon.Photon;
 import com.github.molcikas.photon.PhotonTransaction;
+import com.github.molcikas.photon.datasource.GenericDataSource;
+import com.github.molcikas.photon.options.PhotonOptions;
+import com.github.molcikas.photon.tests.unit.h2.H2TestUtil;
 import com.github.molcikas.photon.tests.unit.entities.myonetomanytable.MyThirdTable;
 import com.github.molcikas.photon.tests.unit.entities.myonetomanytable.MyManyTable;
 import com.github.molcikas.photon.tests.unit.entities.myonetomanytable.MyOneToManyTable;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -77,6 +87,96 @@ public class MyOneToManyTableSaveTests
         }
     }
 
+    @Test
+    public void aggregateSave_insertChildrenInMultipleBatches_populatesGeneratedKeysInOrder()
+    {
+        photon = new Photon(
+            H2TestUtil.h2Url,
+            H2TestUtil.h2User,
+            H2TestUtil.h2Password,
+            PhotonOptions.builder().batchSize(3).build()
+        );
+        registerMyOneToManyTableAggregate();
+
+        List<MyManyTable> myManyTables = new ArrayList<>();
+        for(int i = 0; i < 10; i++)
+        {
+            myManyTables.add(new MyManyTable(null, "MyManyValue" + i, null));
+        }
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            MyOneToManyTable myOneToManyTable = new MyOneToManyTable(null, "MyOneToManyTableValue", myManyTables);
+            transaction.save(myOneToManyTable);
+            transaction.commit();
+        }
+
+        for(int i = 0; i < myManyTables.size(); i++)
+        {
+            assertEquals(Integer.valueOf(10 + i), myManyTables.get(i).getId());
+        }
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            MyOneToManyTable myOneToManyTable = transaction
+                .query(MyOneToManyTable.class)
+                .fetchById(7);
+
+            assertEquals(10, myOneToManyTable.getMyManyTables().size());
+            for(int i = 0; i < 10; i++)
+            {
+                MyManyTable myManyTable = myOneToManyTable.getMyManyTables().get(i);
+                assertEquals(Integer.valueOf(10 + i), myManyTable.getId());
+                assertEquals(Integer.valueOf(7), myManyTable.getParent());
+                assertEquals("MyManyValue" + i, myManyTable.getMyOtherValueWithDiffName());
+            }
+        }
+    }
+
+    @Test
+    public void aggregateSave_multiRowInsertsWithGeneratedKeys_insertsChildrenOneRowPerStatement()
+    {
+        RowCountingDataSource dataSource = new RowCountingDataSource();
+        photon = new Photon(dataSource, PhotonOptions.builder().enableMultiRowInserts(true).build());
+        registerMyOneToManyTableAggregate();
+
+        List<MyManyTable> myManyTables = new ArrayList<>();
+        for(int i = 0; i < 3; i++)
+        {
+            myManyTables.add(new MyManyTable(null, "MyManyValue" + i, Arrays.asList(
+                new MyThirdTable(null, "MyThirdValue" + i + "a"),
+                new MyThirdTable(null, "MyThirdValue" + i + "b")
+            )));
+        }
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            transaction.save(new MyOneToManyTable(null, "MyOneToManyTableValue", myManyTables));
+            transaction.commit();
+        }
+
+        // Multi-row inserts do not guarantee which row gets which generated key, so they are not used here.
+        assertTrue(dataSource.rowsReadBySql.keySet().stream().noneMatch(sql -> sql.contains("INSERT") && sql.contains("),")));
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            MyOneToManyTable myOneToManyTable = transaction
+                .query(MyOneToManyTable.class)
+                .fetchById(7);
+
+            assertEquals(3, myOneToManyTable.getMyManyTables().size());
+            for(int i = 0; i < 3; i++)
+            {
+                MyManyTable myManyTable = myOneToManyTable.getMyManyTables().get(i);
+                assertEquals(Integer.valueOf(10 + i), myManyTable.getId());
+                assertEquals("MyManyValue" + i, myManyTable.getMyOtherValueWithDiffName());
+                assertEquals(
+                    Arrays.asList("MyThirdValue" + i + "a", "MyThirdValue" + i + "b"),
+                    myManyTable.getMyThirdTables().stream().map(MyThirdTable::getVal).collect(Collectors.toList()));
+            }
+        }
+    }
+
     @Test
     public void aggregateSave_deleteEntityWithChildren_savesAggregate()
     {
@@ -337,6 +437,76 @@ public class MyOneToManyTableSaveTests
         }
     }
 
+    @Test
+    public void aggregateSave_withNoTrackingAndChildRemoved_selectsOnlyOrphanRows()
+    {
+        RowCountingDataSource dataSource = new RowCountingDataSource();
+        photon = new Photon(dataSource, PhotonOptions.builder().build());
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            MyOneToManyTable myOneToManyTable = transaction
+                .query(MyOneToManyTable.class)
+                .noTracking()
+                .fetchById(6);
+
+            myOneToManyTable.getMyManyTables().remove(1);
+
+            dataSource.rowsReadBySql.clear();
+            transaction.save(myOneToManyTable);
+            transaction.commit();
+        }
+
+        assertEquals(Integer.valueOf(1), getRowsReadBySelectOrphans(dataSource, "mymanytable"));
+        assertEquals(Integer.valueOf(0), getRowsReadBySelectOrphans(dataSource, "mythirdtable"));
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            MyOneToManyTable myOneToManyTable = transaction
+                .query(MyOneToManyTable.class)
+                .fetchById(6);
+
+            assertEquals(
+                Arrays.asList(7, 9),
+                myOneToManyTable.getMyManyTables().stream().map(MyManyTable::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void aggregateSave_withNoTrackingAndMoreChildIdsThanMaxInListSize_selectsOnlyOrphanRows()
+    {
+        RowCountingDataSource dataSource = new RowCountingDataSource();
+        photon = new Photon(dataSource, PhotonOptions.builder().maxInListSize(2).build());
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .noTracking()
+                .fetchByIds(Arrays.asList(4, 5, 6));
+
+            myOneToManyTables.get(0).getMyManyTables().remove(0);
+            myOneToManyTables.get(1).getMyManyTables().remove(1);
+            myOneToManyTables.get(2).getMyManyTables().remove(2);
+
+            dataSource.rowsReadBySql.clear();
+            transaction.saveAll(myOneToManyTables);
+            transaction.commit();
+        }
+
+        assertEquals(Integer.valueOf(3), getRowsReadBySelectOrphans(dataSource, "mymanytable"));
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<Integer> myManyTableIds = transaction
+                .query("SELECT id FROM mymanytable ORDER BY id")
+                .fetchScalarList(Integer.class);
+            assertEquals(Arrays.asList(1, 3, 4, 6, 7, 8), myManyTableIds);
+        }
+    }
+
     @Test
     public void aggregateSave_withTrackingAndChildrenChanged_deletesOrphanAndInsertsNewChild()
     {
@@ -373,6 +543,47 @@ public class MyOneToManyTableSaveTests
         }
     }
 
+    @Test
+    public void aggregateSave_saveAllWithChildrenRemovedFromMultipleParents_deletesOrphansForEachParent()
+    {
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(Arrays.asList(4, 5, 6));
+
+            myOneToManyTables.get(1).getMyManyTables().remove(0);
+            myOneToManyTables.get(2).getMyManyTables().remove(1);
+
+            transaction.saveAll(myOneToManyTables);
+
+            myOneToManyTables.get(2).getMyManyTables().remove(0);
+
+            transaction.saveAll(myOneToManyTables);
+            transaction.commit();
+        }
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(Arrays.asList(4, 5, 6));
+
+            assertEquals(2, myOneToManyTables.get(0).getMyManyTables().size());
+            assertEquals(2, myOneToManyTables.get(1).getMyManyTables().size());
+            assertEquals("my52otherdbvalue", myOneToManyTables.get(1).getMyManyTables().get(0).getMyOtherValueWithDiffName());
+            assertEquals(1, myOneToManyTables.get(2).getMyManyTables().size());
+            assertEquals("my63otherdbvalue", myOneToManyTables.get(2).getMyManyTables().get(0).getMyOtherValueWithDiffName());
+
+            List<Integer> thirdTableIds = transaction
+                .query("SELECT id FROM mythirdtable ORDER BY id")
+                .fetchScalarList(Integer.class);
+            assertEquals(Arrays.asList(3, 4), thirdTableIds);
+        }
+    }
+
     @Test
     public void aggregateSave_withTrackingAndRemoveAfterSave_tracksChangesThroughMultipleSaves()
     {
@@ -440,6 +651,41 @@ public class MyOneToManyTableSaveTests
         }
     }
 
+    @Test
+    public void aggregateSave_withTrackingAndChildrenRemoved_untracksGrandchildOfSecondChild()
+    {
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            // Only the second child of aggregate 4 has a grandchild.
+            transaction.query("insert into `mythirdtable` (`id`, `parent`, `val`) values (5, 3, 'thirdtableval5')").executeUpdate();
+
+            MyOneToManyTable myOneToManyTable = transaction
+                .query(MyOneToManyTable.class)
+                .fetchById(4);
+
+            List<MyManyTable> myManyTables = new ArrayList<>(myOneToManyTable.getMyManyTables());
+            myOneToManyTable.getMyManyTables().clear();
+            transaction.save(myOneToManyTable);
+
+            // The second child is updated instead of inserted when it is added back, so its grandchild is only
+            // inserted if it is no longer tracked.
+            transaction.query("insert into `mymanytable` (`id`, `parent`, `myothervalue`) values (3, 4, 'my42otherdbvalue')").executeUpdate();
+            myOneToManyTable.getMyManyTables().addAll(myManyTables);
+            transaction.save(myOneToManyTable);
+
+            MyOneToManyTable myOneToManyTableFetched = transaction
+                .query(MyOneToManyTable.class)
+                .fetchById(4);
+
+            assertEquals(2, myOneToManyTableFetched.getMyManyTables().size());
+            assertEquals(0, myOneToManyTableFetched.getMyManyTables().get(0).getMyThirdTables().size());
+            assertEquals(1, myOneToManyTableFetched.getMyManyTables().get(1).getMyThirdTables().size());
+            assertEquals("thirdtableval5", myOneToManyTableFetched.getMyManyTables().get(1).getMyThirdTables().get(0).getVal());
+        }
+    }
+
     @Test
     public void aggregateSave_withTrackingAndDelete_tracksDelete()
     {
@@ -473,6 +719,288 @@ public class MyOneToManyTableSaveTests
         }
     }
 
+    @Test
+    public void aggregateSave_withTrackingAndFieldsChanged_updatesOnlyChangedRows()
+    {
+        RowCountingDataSource dataSource = new RowCountingDataSource();
+        photon = new Photon(dataSource, PhotonOptions.builder().build());
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            MyOneToManyTable myOneToManyTable = transaction
+                .query(MyOneToManyTable.class)
+                .fetchById(6);
+
+            myOneToManyTable.setMyvalue("my6newvalue");
+            myOneToManyTable.getMyManyTables().get(1).setMyOtherValueWithDiffName("my62newvalue");
+
+            transaction.save(myOneToManyTable);
+            transaction.commit();
+        }
+
+        assertEquals(Integer.valueOf(1), getExecutions(dataSource, "update", "myonetomanytable"));
+        assertEquals(Integer.valueOf(1), getExecutions(dataSource, "update", "mymanytable"));
+        assertEquals(Integer.valueOf(0), getExecutions(dataSource, "update", "mythirdtable"));
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            MyOneToManyTable myOneToManyTable = transaction
+                .query(MyOneToManyTable.class)
+                .fetchById(6);
+
+            assertEquals("my6newvalue", myOneToManyTable.getMyvalue());
+            assertEquals(
+                Arrays.asList("my61otherdbvalue", "my62newvalue", "my63otherdbvalue"),
+                myOneToManyTable.getMyManyTables().stream().map(MyManyTable::getMyOtherValueWithDiffName).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void aggregateSave_withTrackingAndNothingChanged_doesNotUpdate()
+    {
+        RowCountingDataSource dataSource = new RowCountingDataSource();
+        photon = new Photon(dataSource, PhotonOptions.builder().build());
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            MyOneToManyTable myOneToManyTable = transaction
+                .query(MyOneToManyTable.class)
+                .fetchById(6);
+
+            transaction.save(myOneToManyTable);
+            transaction.commit();
+        }
+
+        assertEquals(Integer.valueOf(0), getExecutions(dataSource, "update", "myonetomanytable"));
+        assertEquals(Integer.valueOf(0), getExecutions(dataSource, "update", "mymanytable"));
+        assertEquals(Integer.valueOf(0), getExecutions(dataSource, "update", "mythirdtable"));
+        assertEquals(Integer.valueOf(0), getExecutions(dataSource, "insert into", "mymanytable"));
+    }
+
+    @Test
+    public void aggregateSave_withTrackingAndChildRemoved_deletesOrphanAndGrandchildren()
+    {
+        RowCountingDataSource dataSource = new RowCountingDataSource();
+        photon = new Photon(dataSource, PhotonOptions.builder().build());
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            MyOneToManyTable myOneToManyTable = transaction
+                .query(MyOneToManyTable.class)
+                .fetchById(6);
+
+            myOneToManyTable.getMyManyTables().remove(2);
+
+            transaction.save(myOneToManyTable);
+            transaction.commit();
+        }
+
+        assertEquals(Integer.valueOf(0), getExecutions(dataSource, "update", "mymanytable"));
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<Integer> myManyTableIds = transaction
+                .query("SELECT id FROM mymanytable WHERE parent = 6 ORDER BY id")
+                .fetchScalarList(Integer.class);
+            assertEquals(Arrays.asList(7, 8), myManyTableIds);
+
+            List<Integer> thirdTableIds = transaction
+                .query("SELECT id FROM mythirdtable ORDER BY id")
+                .fetchScalarList(Integer.class);
+            assertEquals(Arrays.asList(1, 2), thirdTableIds);
+        }
+    }
+
+    @Test
+    public void aggregateSave_saveNewAggregateTwice_insertsOnceThenUpdates()
+    {
+        RowCountingDataSource dataSource = new RowCountingDataSource();
+        photon = new Photon(dataSource, PhotonOptions.builder().build());
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            MyOneToManyTable myOneToManyTable = new MyOneToManyTable(
+                null,
+                "MyOneToManyTableValue",
+                Arrays.asList(
+                    new MyManyTable(null, "MyManyTableValue1", Collections.singletonList(new MyThirdTable(null, "ThirdValue1"))),
+                    new MyManyTable(null, "MyManyTableValue2", Collections.emptyList())
+                )
+            );
+
+            transaction.save(myOneToManyTable);
+
+            myOneToManyTable.getMyManyTables().get(1).setMyOtherValueWithDiffName("MyManyTableValue2Changed");
+            transaction.save(myOneToManyTable);
+            transaction.commit();
+        }
+
+        // Entities with generated keys are not tracked after they are inserted, so the second save writes each row
+        // once.
+        assertEquals(Integer.valueOf(1), getExecutions(dataSource, "insert into", "myonetomanytable"));
+        assertEquals(Integer.valueOf(2), getExecutions(dataSource, "insert into", "mymanytable"));
+        assertEquals(Integer.valueOf(1), getExecutions(dataSource, "insert into", "mythirdtable"));
+        assertEquals(Integer.valueOf(1), getExecutions(dataSource, "update", "myonetomanytable"));
+        assertEquals(Integer.valueOf(2), getExecutions(dataSource, "update", "mymanytable"));
+        assertEquals(Integer.valueOf(1), getExecutions(dataSource, "update", "mythirdtable"));
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            MyOneToManyTable myOneToManyTable = transaction
+                .query(MyOneToManyTable.class)
+                .fetchById(7);
+
+            assertEquals(
+                Arrays.asList("MyManyTableValue1", "MyManyTableValue2Changed"),
+                myOneToManyTable.getMyManyTables().stream().map(MyManyTable::getMyOtherValueWithDiffName).collect(Collectors.toList()));
+            assertEquals(1, myOneToManyTable.getMyManyTables().get(0).getMyThirdTables().size());
+        }
+    }
+
+    @Test
+    public void aggregateSave_saveAllWithChildInTwoParents_updatesChildOnce()
+    {
+        RowCountingDataSource dataSource = new RowCountingDataSource();
+        photon = new Photon(dataSource, PhotonOptions.builder().build());
+        registerMyOneToManyTableAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyOneToManyTable> myOneToManyTables = transaction
+                .query(MyOneToManyTable.class)
+                .fetchByIds(Arrays.asList(5, 6));
+
+            MyManyTable myManyTable = myOneToManyTables.get(0).getMyManyTables().get(0);
+            myManyTable.setMyOtherValueWithDiffName("MovedValue");
+            myOneToManyTables.get(1).getMyManyTables().add(myManyTable);
+
+            transaction.saveAll(myOneToManyTables);
+            transaction.commit();
+        }
+
+        // The child is updated once and ends up under the last parent that has it.
+        assertEquals(Integer.valueOf(1), getExecutions(dataSource, "update", "mymanytable"));
+        assertEquals(Integer.valueOf(0), getExecutions(dataSource, "insert into", "mymanytable"));
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<String> myManyTableRows = transaction
+                .query("SELECT CONCAT(id, '/', parent, '/', myothervalue) FROM mymanytable WHERE parent IN (5, 6) ORDER BY id")
+                .fetchScalarList(String.class);
+            assertEquals(
+                Arrays.asList(
+                    "4/6/MovedValue",
+                    "5/5/my52otherdbvalue",
+                    "6/5/my53otherdbvalue",
+                    "7/6/my61otherdbvalue",
+                    "8/6/my62otherdbvalue",
+                    "9/6/my63otherdbvalue"),
+                myManyTableRows);
+        }
+    }
+
+    private static Integer getRowsReadBySelectOrphans(RowCountingDataSource dataSource, String tableName)
+    {
+        return dataSource.rowsReadBySql
+            .entrySet()
+            .stream()
+            .filter(e -> e.getKey().replace("`", "").toLowerCase().contains("from " + tableName + " ") && e.getKey().contains("NOT IN"))
+            .map(Map.Entry::getValue)
+            .reduce(0, Integer::sum);
+    }
+
+    private static Integer getExecutions(RowCountingDataSource dataSource, String sqlStart, String tableName)
+    {
+        return dataSource.executionsBySql
+            .entrySet()
+            .stream()
+            .filter(e -> e.getKey().replace("`", "").toLowerCase().matches("(?s)" + sqlStart + " " + tableName + "\\s.*"))
+            .map(Map.Entry::getValue)
+            .reduce(0, Integer::sum);
+    }
+
+    private static class RowCountingDataSource extends GenericDataSource
+    {
+        private final Map<String, Integer> rowsReadBySql = new HashMap<>();
+        private final Map<String, Integer> executionsBySql = new HashMap<>();
+
+        private RowCountingDataSource()
+        {
+            super(H2TestUtil.h2Url, H2TestUtil.h2User, H2TestUtil.h2Password);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException
+        {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class[] { Connection.class },
+                (proxy, method, args) ->
+                {
+                    Object result = invoke(method, connection, args);
+                    if(method.getName().equals("prepareStatement"))
+                    {
+                        return wrapStatement((PreparedStatement) result, (String) args[0]);
+                    }
+                    return result;
+                });
+        }
+
+        private PreparedStatement wrapStatement(PreparedStatement statement, String sql)
+        {
+            rowsReadBySql.putIfAbsent(sql, 0);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class[] { PreparedStatement.class },
+                (proxy, method, args) ->
+                {
+                    Object result = invoke(method, statement, args);
+                    if(method.getName().equals("executeUpdate") || method.getName().equals("addBatch"))
+                    {
+                        executionsBySql.merge(sql, 1, Integer::sum);
+                    }
+                    if(method.getName().equals("executeQuery"))
+                    {
+                        return wrapResultSet((ResultSet) result, sql);
+                    }
+                    return result;
+                });
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet, String sql)
+        {
+            return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class[] { ResultSet.class },
+                (proxy, method, args) ->
+                {
+                    Object result = invoke(method, resultSet, args);
+                    if(method.getName().equals("next") && (Boolean) result)
+                    {
+                        rowsReadBySql.merge(sql, 1, Integer::sum);
+                    }
+                    return result;
+                });
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable
+        {
+            try
+            {
+                return method.invoke(target, args);
+            }
+            catch(InvocationTargetException ex)
+            {
+                throw ex.getCause();
+            }
+        }
+    }
+
     private void registerMyOneToManyTableAggregate()
     {
         photon.registerAggregate(MyOneToManyTable.class)
@@ -16,10 +16,12 @@ import com.github.molcikas.photon.tests.unit.entities.mytable.MyTable;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -50,6 +52,28 @@ public class MyTableFetchTests
         }
     }
 
+    @Test
+    public void aggregate_fetchByIdMultipleTimes_reusesCachedStatements()
+    {
+        registerMyTableOnlyAggregate();
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            transaction.query(MyTable.class).fetchById(2);
+            long misses = transaction.getStatementCacheMisses();
+            assertEquals(0, transaction.getStatementCacheHits());
+
+            MyTable myTable = transaction
+                .query(MyTable.class)
+                .fetchById(3);
+
+            assertNotNull(myTable);
+            assertEquals("my3dbvalue", myTable.getMyvalue());
+            assertEquals(misses, transaction.getStatementCacheMisses());
+            assertTrue(transaction.getStatementCacheHits() > 0);
+        }
+    }
+
     @Test
     public void aggregate_fetchById_simpleEntityWithImplicitId_returnsEntity()
     {
@@ -174,6 +198,59 @@ public class MyTableFetchTests
         }
     }
 
+    @Test
+    public void aggregate_fetchByIdsWithFiveThousandIds_returnsAggregatesUsingOneStatementPerTable()
+    {
+        registerMyTableAggregate();
+
+        List<Integer> ids = new ArrayList<>();
+        for(int i = 5000; i > 0; i--)
+        {
+            ids.add(i);
+        }
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<MyTable> myTables = transaction
+                .query(MyTable.class)
+                .fetchByIds(ids);
+
+            assertEquals(6, myTables.size());
+            assertEquals(2, transaction.getStatementCacheMisses());
+
+            MyTable myTable = myTables.stream().filter(m -> m.getId() == 4).findFirst().orElse(null);
+            assertNotNull(myTable);
+            assertEquals("my4dbvalue", myTable.getMyvalue());
+            assertEquals(4, myTable.getMyOtherTable().getId());
+        }
+    }
+
+    @Test
+    public void aggregate_fetchByIdsWithMoreIdsThanOracleInListLimit_sortsAcrossWholeResult()
+    {
+        registerMyTableAggregate();
+
+        List<Integer> ids = new ArrayList<>();
+        for(int i = 5000; i > 0; i--)
+        {
+            ids.add(i);
+        }
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            transaction.query("insert into `mytable` (`id`, `myvalue`) values (4500, 'my4500dbvalue')").executeUpdate();
+            transaction.query("insert into `mytable` (`id`, `myvalue`) values (1500, 'my1500dbvalue')").executeUpdate();
+
+            List<MyTable> myTables = transaction
+                .query(MyTable.class)
+                .fetchByIds(ids);
+
+            assertEquals(
+                Arrays.asList(1, 2, 3, 4, 5, 6, 1500, 4500),
+                myTables.stream().map(MyTable::getId).collect(Collectors.toList()));
+        }
+    }
+
     @Test
     public void aggregate_fetchById_ignoredField_returnsEntityWithIgnoredFieldNull()
     {
@@ -12,8 +12,11 @@ import com.github.molcikas.photon.exceptions.PhotonException;
 import com.github.molcikas.photon.query.PhotonQuery;
 import com.github.molcikas.photon.tests.unit.entities.mytable.MyTable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -50,6 +53,77 @@ public class MyTableQueryTests
         }
     }
 
+    @Test
+    public void query_fetchList_reorderedAndExtraColumns_mapsColumnsByName()
+    {
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            String sql =
+                "SELECT 'extra' AS extraColumn, myvalue AS MYVALUE, id AS ID " +
+                "FROM mytable " +
+                "WHERE id IN (2, 3) " +
+                "ORDER BY id ";
+
+            List<MyTable> myTables = transaction
+                .query(sql)
+                .fetchList(MyTable.class);
+
+            assertEquals(2, myTables.size());
+            assertEquals(new Integer(2), myTables.get(0).getId());
+            assertEquals("my2dbvalue", myTables.get(0).getMyvalue());
+            assertEquals(new Integer(3), myTables.get(1).getId());
+            assertEquals("my3dbvalue", myTables.get(1).getMyvalue());
+
+            transaction.commit();
+        }
+    }
+
+    @Test
+    public void query_fetchStream_simpleEntities_returnsEntitiesInOrder()
+    {
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            String sql =
+                "SELECT * " +
+                "FROM mytable " +
+                "WHERE id >= :id " +
+                "ORDER BY id ";
+
+            List<MyTable> myTables;
+            try(Stream<MyTable> stream = transaction.query(sql).addParameter("id", 3).fetchStream(MyTable.class, 2))
+            {
+                myTables = stream.collect(Collectors.toList());
+            }
+
+            assertEquals(4, myTables.size());
+            assertEquals(new Integer(3), myTables.get(0).getId());
+            assertEquals("my3dbvalue", myTables.get(0).getMyvalue());
+            assertEquals(new Integer(6), myTables.get(3).getId());
+            assertNull(myTables.get(3).getMyvalue());
+
+            MyTable myTable = transaction
+                .query("SELECT * FROM mytable WHERE id = :id")
+                .addParameter("id", 2)
+                .fetch(MyTable.class);
+            assertEquals("my2dbvalue", myTable.getMyvalue());
+        }
+    }
+
+    @Test
+    public void query_forEach_simpleEntities_callsConsumerForEachEntity()
+    {
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<Integer> ids = new ArrayList<>();
+
+            transaction
+                .query("SELECT * FROM mytable ORDER BY id DESC")
+                .forEach(MyTable.class, myTable -> ids.add(myTable.getId()));
+
+            assertEquals(Arrays.asList(6, 5, 4, 3, 2, 1), ids);
+        }
+    }
+
     @Test
     public void query_fetch_sameParameterTwice_returnsEntity()
     {
@@ -128,6 +202,37 @@ public class MyTableQueryTests
         }
     }
 
+    @Test
+    public void query_fetch_sameMappingTwice_reusesBlueprint()
+    {
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            String sql =
+                "SELECT * " +
+                "FROM mytable " +
+                "WHERE id = :id ";
+            Converter upperCaseHydrater = val -> ((String) val).toUpperCase();
+            long cacheMisses = photon.getEntityBlueprintCache().getCacheMisses();
+            long cacheHits = photon.getEntityBlueprintCache().getCacheHits();
+
+            MyTable myTable1 = transaction.query(sql).addParameter("id", 2).fetch(MyTable.class);
+            MyTable myTable2 = transaction.query(sql).addParameter("id", 3).fetch(MyTable.class);
+            MyTable myTable3 = transaction
+                .query(sql)
+                .addParameter("id", 3)
+                .withFieldHydrater("myvalue", upperCaseHydrater)
+                .fetch(MyTable.class);
+
+            assertEquals("my2dbvalue", myTable1.getMyvalue());
+            assertEquals("my3dbvalue", myTable2.getMyvalue());
+            assertEquals("MY3DBVALUE", myTable3.getMyvalue());
+            assertEquals(cacheMisses + 2, photon.getEntityBlueprintCache().getCacheMisses());
+            assertEquals(cacheHits + 1, photon.getEntityBlueprintCache().getCacheHits());
+
+            transaction.commit();
+        }
+    }
+
     @Test
     public void query_fetchScalar_fetchString_fetchesString()
     {
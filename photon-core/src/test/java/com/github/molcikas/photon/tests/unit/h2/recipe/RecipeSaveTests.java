@@ -6,6 +6,8 @@ import org.junit.Before;
 import org.junit.Test;
 import com.github.molcikas.photon.Photon;
 import com.github.molcikas.photon.PhotonTransaction;
+import com.github.molcikas.photon.options.PhotonOptions;
+import com.github.molcikas.photon.tests.unit.h2.H2TestUtil;
 import com.github.molcikas.photon.tests.unit.entities.recipe.RecipeIngredient;
 import com.github.molcikas.photon.tests.unit.entities.recipe.RecipeInstruction;
 import com.github.molcikas.photon.tests.unit.entities.recipe.Recipe;
@@ -196,6 +198,64 @@ public class RecipeSaveTests
         }
     }
 
+    @Test
+    public void aggregate_save_multiRowInserts_insertsRecipeInChunks()
+    {
+        photon = new Photon(
+            H2TestUtil.h2Url,
+            H2TestUtil.h2User,
+            H2TestUtil.h2Password,
+            PhotonOptions
+                .builder()
+                .defaultUuidDataType(PhotonOptions.DEFAULT_UUID_DATA_TYPE)
+                .enableMultiRowInserts(true)
+                .maxBindParameters(10)
+                .build()
+        );
+        RecipeDbSetup.registerRecipeAggregate(photon);
+
+        Recipe recipe = new Recipe(
+            UUID.fromString("3e038307-a9b6-11e6-ab83-0a0027000011"),
+            "My Recipe",
+            "This is my recipe.",
+            10,
+            11,
+            12,
+            true,
+            false,
+            true,
+            "http://www.example.com/food/myrecipe",
+            Arrays.asList(
+                new RecipeIngredient(true, Fraction.getFraction("1/2"), "teaspoon", null, "salt", null, 0),
+                new RecipeIngredient(true, Fraction.getFraction("1/4"), "tablespoon", null, "tumeric", "dried", 1),
+                new RecipeIngredient(false, Fraction.getFraction("1"), "cup", null, "rice", null, 2)
+            ),
+            Arrays.asList(
+                new RecipeInstruction(UUID.fromString("3e038307-a9b6-11e6-ab83-0a0027000012"), 1, "Cook the rice."),
+                new RecipeInstruction(UUID.fromString("3e038307-a9b6-11e6-ab83-0a0027000013"), 2, "Add the spices."),
+                new RecipeInstruction(UUID.fromString("3e038307-a9b6-11e6-ab83-0a0027000014"), 3, "Eat it.")
+            )
+        );
+
+        try (PhotonTransaction transaction = photon.beginTransaction())
+        {
+            transaction.save(recipe);
+            transaction.commit();
+        }
+
+        try (PhotonTransaction transaction = photon.beginTransaction())
+        {
+            Recipe fetchedRecipe = transaction
+                .query(Recipe.class)
+                .fetchById(UUID.fromString("3e038307-a9b6-11e6-ab83-0a0027000011"));
+
+            assertNotNull(fetchedRecipe);
+            assertEquals(3, fetchedRecipe.getIngredients().size());
+            assertEquals(3, fetchedRecipe.getInstructions().size());
+            assertEquals(recipe, fetchedRecipe);
+        }
+    }
+
     @Test
     public void aggregate_insert_insertRecipeWithIngredientsAndInstructions_insertsRecipe()
     {
@@ -393,6 +453,40 @@ public class RecipeSaveTests
         }
     }
 
+    @Test
+    public void track_saveTrackedAggregateWithManyChangedChildren_updatesEachChild()
+    {
+        RecipeDbSetup.registerRecipeAggregate(photon);
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            Recipe recipe = transaction
+                .query(Recipe.class)
+                .fetchById(UUID.fromString("3e038307-a9b6-11e6-ab83-0a0027000010"));
+
+            for(int i = 0; i < recipe.getInstructions().size(); i++)
+            {
+                recipe.getInstructions().get(i).setDescription("New Description " + i);
+            }
+
+            transaction.save(recipe);
+            transaction.commit();
+        }
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            Recipe recipeFetched = transaction
+                .query(Recipe.class)
+                .fetchById(UUID.fromString("3e038307-a9b6-11e6-ab83-0a0027000010"));
+
+            assertEquals(6, recipeFetched.getInstructions().size());
+            for(int i = 0; i < recipeFetched.getInstructions().size(); i++)
+            {
+                assertEquals("New Description " + i, recipeFetched.getInstructions().get(i).getDescription());
+            }
+        }
+    }
+
     @Test
     public void untrack_saveUnTrackedAggregate_resavesAllChanges()
     {
@@ -480,4 +574,37 @@ public class RecipeSaveTests
             assertEquals("New Description 2", recipeFetched.getInstructions().get(0).getDescription());
         }
     }
+
+    @Test
+    public void track_saveTrackedAggregateTwice_savesChangesOnlyOnSecondSave()
+    {
+        RecipeDbSetup.registerRecipeAggregate(photon);
+
+        try(PhotonTransaction transaction = photon.beginTransaction())
+        {
+            Recipe recipe = transaction
+                .query(Recipe.class)
+                .fetchById(UUID.fromString("3e038307-a9b6-11e6-ab83-0a0027000010"));
+
+            recipe.setPrepTime(777);
+            transaction.save(recipe);
+
+            int rowsUpdated = transaction.query("UPDATE recipe SET name = 'UpdatedName' WHERE recipeId = :recipeId")
+                .addParameter("recipeId", recipe.getRecipeId(), ColumnDataType.BINARY)
+                .executeUpdate();
+            assertEquals(1, rowsUpdated);
+
+            // The first save tracks every column of the row, not just the prep time, so the name is not saved again.
+            recipe.setPrepTime(888);
+            transaction.save(recipe);
+
+            Recipe recipeFetched = transaction
+                .query(Recipe.class)
+                .fetchById(UUID.fromString("3e038307-a9b6-11e6-ab83-0a0027000010"));
+
+            assertNotNull(recipeFetched);
+            assertEquals("UpdatedName", recipeFetched.getName());
+            assertEquals(888, recipeFetched.getPrepTime());
+        }
+    }
 }
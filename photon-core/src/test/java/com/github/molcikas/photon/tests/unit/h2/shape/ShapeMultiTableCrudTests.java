@@ -284,6 +284,48 @@ public class ShapeMultiTableCrudTests
         }
     }
 
+    @Test
+    public void withJoinedTableAndDiscriminator_saveAllOverExistingEntitiesOfDifferentTypes_deletesOrphanRows()
+    {
+        registerShapeAggregate();
+
+        try (PhotonTransaction transaction = photon.beginTransaction())
+        {
+            Rectangle rectangle = new Rectangle(1, "blue", 1, 11, 12, null);
+            Circle circle = new Circle(2, "green", 1, 13);
+
+            transaction.saveAll(rectangle, circle);
+            transaction.commit();
+        }
+
+        try (PhotonTransaction transaction = photon.beginTransaction())
+        {
+            List<Shape> shapes = transaction
+                .query(Shape.class)
+                .fetchByIds(1, 2);
+
+            assertEquals(2, shapes.size());
+
+            Rectangle rectangle = (Rectangle) shapes.get(0);
+            assertEquals(11, rectangle.getWidth());
+            assertEquals(12, rectangle.getHeight());
+
+            Circle circle = (Circle) shapes.get(1);
+            assertEquals(13, circle.getRadius());
+            assertEquals("green", circle.getColor());
+
+            List<Integer> circleIds = transaction
+                .query("SELECT id FROM circle ORDER BY id")
+                .fetchScalarList(Integer.class);
+            assertFalse(circleIds.contains(1));
+
+            List<Integer> rectangleIds = transaction
+                .query("SELECT id FROM rectangle ORDER BY id")
+                .fetchScalarList(Integer.class);
+            assertFalse(rectangleIds.contains(2));
+        }
+    }
+
     @Test
     public void withJoinedTableAndDiscriminator_fetchAggregateWithChildrenAtMultipleLayer_fetchesAndDeletesAggregate()
     {
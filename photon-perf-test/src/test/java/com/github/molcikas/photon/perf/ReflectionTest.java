@@ -4,6 +4,9 @@ import org.apache.commons.lang3.time.StopWatch;
 import org.junit.Test;
 import com.github.molcikas.photon.perf.photon.Recipe;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 
 public class ReflectionTest
@@ -64,4 +67,34 @@ public class ReflectionTest
             throw new RuntimeException(ex);
         }
     }
+
+    @Test
+    public void testMethodHandleWithCache()
+    {
+        try
+        {
+            for(int t = 0; t < TEST_RUNS; t++)
+            {
+                Recipe recipe = new Recipe();
+                Field field = Recipe.class.getDeclaredField("name");
+                field.setAccessible(true);
+                MethodHandle setter = MethodHandles.lookup()
+                    .unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+                StopWatch stopWatch = new StopWatch();
+                stopWatch.start();
+                for (int i = 0; i < TEST_ITERATIONS; i++)
+                {
+                    setter.invokeExact((Object) recipe, (Object) ("myname" + i));
+                }
+                long finishTime = stopWatch.getNanoTime();
+                System.out.println(String.format("Finished after %s ms with avg set taking %s ns.", finishTime / 1000000, finishTime / TEST_ITERATIONS));
+            }
+        }
+        catch(Throwable ex)
+        {
+            throw new RuntimeException(ex);
+        }
+    }
 }
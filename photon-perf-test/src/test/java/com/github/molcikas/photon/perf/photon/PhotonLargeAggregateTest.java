@@ -0,0 +1,122 @@
+package com.github.molcikas.photon.perf.photon;
+
+import com.github.molcikas.photon.blueprints.table.ColumnDataType;
+import org.apache.commons.lang3.time.StopWatch;
+import com.github.molcikas.photon.Photon;
+import com.github.molcikas.photon.PhotonTransaction;
+import com.github.molcikas.photon.perf.RecipeDbSetup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Measures how the time to save a tracked aggregate grows with its number of children. The aggregate has n existing
+ * children and n new children are added before saving. Photon's own work should double with each doubling of n, but
+ * H2 checks the orphan query's NOT IN list one value at a time for each row, so the largest sizes grow faster.
+ */
+public class PhotonLargeAggregateTest
+{
+    public static void main(String[] args)
+    {
+        System.out.println("Warming up...");
+
+        setupDatabase();
+        for(int i = 0; i < 3; i++)
+        {
+            runPerformanceTest(1000);
+        }
+
+        for(int childCount = 1000; childCount <= 16000; childCount *= 2)
+        {
+            long totalTime = runPerformanceTest(childCount);
+            System.out.println(String.format(
+                "Saving %s existing and %s new children took %s ms (%s us per child).",
+                childCount,
+                childCount,
+                totalTime / 1000000,
+                totalTime / 1000 / (childCount * 2)));
+        }
+    }
+
+    private static Photon photon;
+
+    private static void setupDatabase()
+    {
+        RecipeDbSetup.setupDatabase();
+
+        photon = new Photon(RecipeDbSetup.createDataSource());
+
+        photon.registerAggregate(Recipe.class)
+            .withId("recipeId")
+            .withChild("instructions", RecipeInstruction.class)
+                .withId("recipeInstructionId", ColumnDataType.BINARY)
+                .withForeignKeyToParent("recipeId")
+                .withDatabaseColumn("recipeId", ColumnDataType.BINARY)
+                .withOrderBySql("stepNumber")
+                .addAsChild()
+            .withChild("ingredients", RecipeIngredient.class)
+                .withId("recipeIngredientId", ColumnDataType.BINARY)
+                .withForeignKeyToParent("recipeId")
+                .withDatabaseColumn("recipeId", ColumnDataType.BINARY)
+                .withOrderBySql("recipeingredient.orderBy DESC")
+                .addAsChild()
+            .register();
+    }
+
+    private static long runPerformanceTest(int childCount)
+    {
+        UUID recipeId = UUID.randomUUID();
+
+        List<RecipeInstruction> instructions = new ArrayList<>(childCount);
+        for(int i = 0; i < childCount; i++)
+        {
+            instructions.add(new RecipeInstruction(UUID.randomUUID(), i, "Step " + i));
+        }
+
+        try (PhotonTransaction transaction = photon.beginTransaction())
+        {
+            Recipe recipe = new Recipe(
+                recipeId,
+                "My Recipe",
+                "This is my recipe.",
+                10,
+                11,
+                12,
+                true,
+                false,
+                true,
+                "http://www.example.com/food/myrecipe",
+                Collections.emptyList(),
+                instructions
+            );
+
+            transaction.insert(recipe);
+            transaction.commit();
+        }
+
+        StopWatch stopWatch = new StopWatch();
+
+        try (PhotonTransaction transaction = photon.beginTransaction())
+        {
+            Recipe recipe = transaction
+                .query(Recipe.class)
+                .fetchById(recipeId);
+
+            for(int i = 0; i < childCount; i++)
+            {
+                recipe.getInstructions().add(new RecipeInstruction(UUID.randomUUID(), childCount + i, "New step " + i));
+            }
+
+            stopWatch.start();
+            transaction.save(recipe);
+            stopWatch.stop();
+
+            transaction.delete(recipe);
+            transaction.commit();
+        }
+
+        return stopWatch.getNanoTime();
+    }
+}